@@ -0,0 +1,36 @@
+package highwayescape;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * AssetLoader.loadImage with an empty cache (PNG decode) and a warm cache
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class AssetLoaderBenchmark {
+    @Param({AssetLoader.ENEMY_CAR, AssetLoader.ROAD_BACKGROUND})
+    public String path;
+    
+    @Setup
+    public void setUp() {
+        Main.prepareAssets();
+        AssetLoader.loadImage(path);
+    }
+    
+    @Benchmark
+    public BufferedImage cold() {
+        AssetLoader.clearCache();
+        return AssetLoader.loadImage(path);
+    }
+    
+    @Benchmark
+    public BufferedImage warm() {
+        return AssetLoader.loadImage(path);
+    }
+}
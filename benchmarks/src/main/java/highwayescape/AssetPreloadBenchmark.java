@@ -0,0 +1,61 @@
+package highwayescape;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Startup asset loading from a cold cache: the old one-after-another
+ * AssetLoader.preloadAssets() against AssetPreloader's thread pool.
+ * parallelStartOnly is the time the calling thread is held up before it
+ * can go on painting. Sounds are left out since headless JVMs usually have
+ * no audio lines.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 30)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class AssetPreloadBenchmark {
+    @Param({"2", "4"})
+    public int threads;
+    
+    @Setup(Level.Trial)
+    public void prepare() {
+        Main.prepareAssets();
+    }
+    
+    private AssetPreloader started;
+    
+    @Setup(Level.Iteration)
+    public void clearCache() {
+        AssetLoader.clearCache();
+    }
+    
+    @TearDown(Level.Iteration)
+    public void finishLoading() {
+        if (started != null) {
+            started.awaitLoaded();
+            started = null;
+        }
+    }
+    
+    @Benchmark
+    public void serial() {
+        AssetLoader.preloadAssets();
+    }
+    
+    @Benchmark
+    public void parallel() {
+        new AssetPreloader(threads, false).awaitLoaded();
+    }
+    
+    /**
+     * How long the caller, normally the event thread, is held up
+     */
+    @Benchmark
+    public void parallelStartOnly() {
+        started = new AssetPreloader(threads, false);
+        started.start();
+    }
+}
@@ -0,0 +1,61 @@
+package highwayescape;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of mixing one AudioMixer block (512 frames, 11.6 ms of audio) into
+ * a null sink with a number of looping voices, which is the work the audio
+ * thread does per block. play() measures starting a sound when every voice
+ * is busy, so each call steals a voice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class AudioMixerBenchmark {
+    @Param({"1", "8", "16"})
+    public int voices;
+    
+    private AudioMixer mixer;
+    private AudioMixer.Sample tone;
+    
+    @Setup
+    public void setUp() throws IOException {
+        // A 1.5 s tone in the mixer's own format, so no sound files are needed
+        int frames = (int) (AudioMixer.SAMPLE_RATE * 1.5);
+        byte[] pcm = new byte[frames * AudioMixer.BYTES_PER_FRAME];
+        for (int i = 0; i < frames; i++) {
+            short value = (short) (Math.sin(i * 2 * Math.PI * 440 / AudioMixer.SAMPLE_RATE) * 12000);
+            for (int channel = 0; channel < AudioMixer.CHANNELS; channel++) {
+                int b = (i * AudioMixer.CHANNELS + channel) * 2;
+                pcm[b] = (byte) value;
+                pcm[b + 1] = (byte) (value >> 8);
+            }
+        }
+        tone = AudioMixer.Sample.fromPcm(AudioMixer.FORMAT, pcm, 1);
+        mixer = new AudioMixer(new AudioMixer.NullSink(), AudioMixer.DEFAULT_VOICES);
+        for (int i = 0; i < voices; i++) {
+            mixer.play(tone, 0.5f, (i % 3) - 1, 1, true);
+        }
+    }
+    
+    @TearDown
+    public void tearDown() {
+        mixer.close();
+    }
+    
+    @Benchmark
+    public long mixBlock() throws IOException {
+        mixer.render(AudioMixer.BLOCK_FRAMES);
+        return mixer.getFramesMixed();
+    }
+    
+    @Benchmark
+    public boolean play() {
+        return mixer.play(tone, 0.5f, 0f, 1, true);
+    }
+}
@@ -0,0 +1,88 @@
+package highwayescape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Player-vs-obstacle collision checks with and without the SpatialGrid
+ * broad phase. A fixed handful of obstacles surrounds the player and the
+ * rest are spread over the road above, so the grid's query cost should stay
+ * flat while the brute-force scan grows with the obstacle count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class BroadPhaseBenchmark {
+    private static final int NEARBY_OBSTACLES = 8;
+    
+    @Param({"10", "100", "1000", "5000"})
+    public int obstacleCount;
+    
+    private PlayerCar player;
+    private List<ObstacleCar> obstacles;
+    private List<SpatialGrid.Entry<ObstacleCar>> entries;
+    private SpatialGrid<ObstacleCar> grid;
+    private List<ObstacleCar> candidates;
+    
+    @Setup
+    public void setUp() {
+        Main.prepareAssets();
+        player = new PlayerCar(220, 550, GameWorld.PLAYER_SPEED);
+        obstacles = new ArrayList<>();
+        entries = new ArrayList<>();
+        grid = new SpatialGrid<>();
+        candidates = new ArrayList<>();
+        
+        Random random = new Random(7);
+        for (int i = 0; i < obstacleCount; i++) {
+            int x = random.nextInt(GameWorld.WIDTH - 80);
+            int y = i < NEARBY_OBSTACLES ? 480 + random.nextInt(120) : -300 + random.nextInt(600);
+            int type = i % 3 == 0 ? ObstacleCar.TYPE_TRUCK : ObstacleCar.TYPE_CAR;
+            ObstacleCar obstacle = new ObstacleCar(x, y, 0, type);
+            obstacles.add(obstacle);
+            entries.add(grid.insert(obstacle, x, y, obstacle.getWidth(), obstacle.getHeight()));
+        }
+    }
+    
+    @Benchmark
+    public int bruteForce() {
+        int hits = 0;
+        for (int i = 0; i < obstacles.size(); i++) {
+            if (collides(player, obstacles.get(i))) hits++;
+        }
+        return hits;
+    }
+    
+    @Benchmark
+    public int gridQuery() {
+        candidates.clear();
+        grid.query(player.getX(), player.getY(), player.getWidth(), player.getHeight(), candidates);
+        int hits = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            if (collides(player, candidates.get(i))) hits++;
+        }
+        return hits;
+    }
+    
+    /**
+     * Per-tick grid maintenance when no obstacle changes cell
+     */
+    @Benchmark
+    public int gridUpdate() {
+        for (int i = 0; i < entries.size(); i++) {
+            ObstacleCar obstacle = obstacles.get(i);
+            grid.update(entries.get(i), obstacle.getX(), obstacle.getY(), obstacle.getWidth(), obstacle.getHeight());
+        }
+        return grid.size();
+    }
+    
+    private static boolean collides(PlayerCar player, ObstacleCar obstacle) {
+        return obstacle.intersects(player.getX(), player.getY(), player.getWidth(), player.getHeight());
+    }
+}
@@ -0,0 +1,62 @@
+package highwayescape;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Time from a fresh JVM to the first drawn frame: loading every sprite,
+ * building the world and painting it once. files decodes the loose PNGs,
+ * pack copies pre-decoded pixels out of the memory-mapped asset pack.
+ * Each fork measures one cold start, so class loading and the first
+ * Java2D setup are part of the number, as they are for a player. Setup
+ * builds the pack in every fork, which warms the PNG reader for files
+ * too, so the gap shown is if anything smaller than a real launch's.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 10, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ColdStartBenchmark {
+    @Param({"files", "pack"})
+    public String source;
+    
+    private File packFile;
+    
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        Main.prepareAssets();
+        
+        packFile = new File("target/cold-start.pack");
+        packFile.getParentFile().mkdirs();
+        // Built for both sources so each fork has done the same work before the measurement
+        AssetPack.build(new File("assets"), packFile);
+        AssetLoader.setAssetPack(null);
+        AssetLoader.clearCache();
+    }
+    
+    @Benchmark
+    public BufferedImage firstFrame() throws IOException {
+        if ("pack".equals(source)) {
+            AssetLoader.setAssetPack(AssetPack.open(packFile));
+        }
+        AssetLoader.preloadAssets();
+        
+        GameWorld world = new GameWorld(1);
+        RoadRenderer road = new RoadRenderer(AssetLoader.loadImage(AssetLoader.ROAD_BACKGROUND),
+            GameWorld.WIDTH, GameWorld.HEIGHT);
+        
+        BufferedImage frame = new BufferedImage(GameWorld.WIDTH, GameWorld.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = frame.createGraphics();
+        road.draw(g2d, world.getBackgroundY1());
+        world.getEntities().render(g2d, 1.0);
+        world.getPlayer().render(g2d, 1.0);
+        g2d.dispose();
+        return frame;
+    }
+}
@@ -0,0 +1,51 @@
+package highwayescape;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The per-tick obstacle pass in GameWorld.updateObstacles: move and
+ * expire every obstacle in the EntityStore, then test the ones the grid
+ * finds near the player. Obstacles are parked (speed 0)
+ * above and beside the player so the population stays constant between
+ * calls while the exact test still runs on the ones next to the player.
+ * GameWorldTest checks that the pass allocates nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    @Param({"10", "100", "1000"})
+    public int obstacleCount;
+    
+    private GameWorld world;
+    
+    @Setup
+    public void setUp() {
+        Main.prepareAssets();
+        world = new GameWorld(42);
+        
+        Random random = new Random(7);
+        for (int i = 0; i < obstacleCount; i++) {
+            EntityStore.Archetype kind = i % 3 == 0 ? world.getTruckKind() : world.getCarKind();
+            int x = random.nextInt(GameWorld.WIDTH - 80);
+            int y = -200 + random.nextInt(500);
+            world.addObstacle(kind, x, y, 0);
+        }
+        
+        // Cars in the lanes left and right of the player, close but not touching
+        PlayerCar player = world.getPlayer();
+        world.addObstacle(world.getCarKind(), player.getX() - 150, player.getY(), 0);
+        world.addObstacle(world.getCarKind(), player.getX() + player.getWidth() + 90, player.getY(), 0);
+    }
+    
+    @Benchmark
+    public int updateObstacles() {
+        world.updateObstacles(0);
+        return world.getLives();
+    }
+}
@@ -0,0 +1,121 @@
+package highwayescape;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Array-backed list whose elements know their own index, so removing one
+ * is O(1): the last element is moved into the gap. Element order is not
+ * kept across removals. An element can be in at most one DenseList.
+ */
+public class DenseList<T extends DenseList.Member> extends AbstractList<T> implements RandomAccess {
+    private Object[] elements;
+    private int size;
+    
+    /**
+     * An element that stores its index in the list holding it
+     */
+    public interface Member {
+        int getDenseIndex();
+        void setDenseIndex(int index);
+    }
+    
+    public DenseList() {
+        this(16);
+    }
+    
+    /**
+     * Constructor for DenseList
+     * @param capacity Initial number of elements held without growing
+     */
+    public DenseList(int capacity) {
+        elements = new Object[Math.max(1, capacity)];
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index);
+        return (T) elements[index];
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public boolean add(T element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size] = element;
+        element.setDenseIndex(size++);
+        modCount++;
+        return true;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public T set(int index, T element) {
+        checkIndex(index);
+        T previous = (T) elements[index];
+        previous.setDenseIndex(-1);
+        elements[index] = element;
+        element.setDenseIndex(index);
+        return previous;
+    }
+    
+    /**
+     * Removes the element at an index and moves the last element into its place
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T remove(int index) {
+        checkIndex(index);
+        T removed = (T) elements[index];
+        T last = (T) elements[--size];
+        elements[index] = last;
+        last.setDenseIndex(index);
+        elements[size] = null;
+        removed.setDenseIndex(-1);
+        modCount++;
+        return removed;
+    }
+    
+    /**
+     * O(1) removal through the element's stored index
+     */
+    @Override
+    public boolean remove(Object element) {
+        if (!(element instanceof Member)) return false;
+        int index = ((Member) element).getDenseIndex();
+        if (index < 0 || index >= size || elements[index] != element) return false;
+        remove(index);
+        return true;
+    }
+    
+    @Override
+    public boolean contains(Object element) {
+        if (!(element instanceof Member)) return false;
+        int index = ((Member) element).getDenseIndex();
+        return index >= 0 && index < size && elements[index] == element;
+    }
+    
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            ((Member) elements[i]).setDenseIndex(-1);
+            elements[i] = null;
+        }
+        size = 0;
+        modCount++;
+    }
+    
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package highwayescape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Steady-state gameplay: a world driven by the sweep's DodgeDriver, so
+ * games last long enough to reach the faster spawn rates, reset when they
+ * end. Run with -prof gc to see what a tick allocates. The remove pair
+ * takes a random obstacle object out of a crowded road and puts it back,
+ * from the DenseList and from the ArrayList the world kept before its
+ * obstacles moved into EntityStore.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class EntityPoolBenchmark {
+    private static final int CROWD = 1000;
+    
+    private GameWorld world;
+    private DifficultySweep.Driver driver;
+    private ObstacleCar[] crowd;
+    private DenseList<ObstacleCar> denseList;
+    private List<ObstacleCar> arrayList;
+    private final Random random = new Random(7);
+    
+    @Setup
+    public void setUp() {
+        Main.prepareAssets();
+        world = new GameWorld(42);
+        driver = new DifficultySweep.DodgeDriver();
+        
+        crowd = new ObstacleCar[CROWD];
+        denseList = new DenseList<>();
+        arrayList = new ArrayList<>();
+        for (int i = 0; i < CROWD; i++) {
+            crowd[i] = new ObstacleCar(i % GameWorld.WIDTH, i, 0, ObstacleCar.TYPE_CAR);
+            denseList.add(crowd[i]);
+            arrayList.add(crowd[i]);
+        }
+    }
+    
+    @Benchmark
+    public long tick() {
+        world.setInput(driver.input(world));
+        if (!world.tick()) {
+            world.reset();
+        }
+        return world.getTicks();
+    }
+    
+    @Benchmark
+    public int denseListRemove() {
+        ObstacleCar obstacle = crowd[random.nextInt(CROWD)];
+        denseList.remove(obstacle);
+        denseList.add(obstacle);
+        return denseList.size();
+    }
+    
+    @Benchmark
+    public int arrayListRemove() {
+        ObstacleCar obstacle = crowd[random.nextInt(CROWD)];
+        arrayList.remove(obstacle);
+        arrayList.add(obstacle);
+        return arrayList.size();
+    }
+}
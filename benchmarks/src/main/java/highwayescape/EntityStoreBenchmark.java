@@ -0,0 +1,171 @@
+package highwayescape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * One simulation tick over a crowded road: 60% cars, 25% trucks, 15%
+ * power-ups, moved, expired (and respawned at the top, so the count holds)
+ * and tested against a player box. objectModel runs ObstacleCar and
+ * power-up objects with a SpatialGrid each, the way GameWorld did before
+ * EntityStore; entityStore runs the same rules the way GameWorld does now.
+ * The box sits off the road, so nothing is removed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class EntityStoreBenchmark {
+    private static final int PLAYER_X = -1000, PLAYER_Y = 500, PLAYER_WIDTH = 50, PLAYER_HEIGHT = 90;
+    private static final int TOP = -2000;
+    
+    @Param({"1000", "10000"})
+    public int entities;
+    
+    private List<ObstacleCar> obstacles;
+    private List<PowerUpObject> powerUps;
+    private SpatialGrid<ObstacleCar> obstacleGrid;
+    private SpatialGrid<PowerUpObject> powerUpGrid;
+    private List<SpatialGrid.Entry<ObstacleCar>> obstacleEntries;
+    private List<SpatialGrid.Entry<PowerUpObject>> powerUpEntries;
+    private List<ObstacleCar> obstacleCandidates;
+    private List<PowerUpObject> powerUpCandidates;
+    
+    private EntityStore store;
+    private EntityStore.Archetype[] archetypes;
+    private int[] targetCounts;
+    private final Random random = new Random(7);
+    private long time;
+    
+    /**
+     * A power-up as one object, moving and colliding like GameWorld's
+     * power-ups did before EntityStore
+     */
+    private static final class PowerUpObject {
+        private int x, y;
+        private long spawnTime;
+        
+        PowerUpObject(int x, int y, long spawnTime) {
+            reset(x, y, spawnTime);
+        }
+        
+        void reset(int x, int y, long spawnTime) {
+            this.x = x;
+            this.y = y;
+            this.spawnTime = spawnTime;
+        }
+        
+        void update(long currentTime) {
+            y += 3;
+            double t = (currentTime - spawnTime) / 1000.0;
+            y += (int) (StrictMath.sin(t * 3) * 5);
+        }
+        
+        boolean isOffScreen() {
+            return y > 800;
+        }
+        
+        boolean intersects(int x, int y, int width, int height) {
+            return Bounds.intersects(this.x, this.y, PowerUp.SIZE, PowerUp.SIZE, x, y, width, height);
+        }
+    }
+    
+    @Setup
+    public void setUp() {
+        Main.prepareAssets();
+        obstacles = new ArrayList<>();
+        powerUps = new ArrayList<>();
+        obstacleGrid = new SpatialGrid<>();
+        powerUpGrid = new SpatialGrid<>();
+        obstacleEntries = new ArrayList<>();
+        powerUpEntries = new ArrayList<>();
+        obstacleCandidates = new ArrayList<>();
+        powerUpCandidates = new ArrayList<>();
+        store = new EntityStore();
+        archetypes = new EntityStore.Archetype[] {
+            store.register(EntityStore.Archetype.car()),
+            store.register(EntityStore.Archetype.truck()),
+            store.register(EntityStore.Archetype.powerUp(PowerUp.PowerUpType.INVINCIBILITY))
+        };
+        targetCounts = new int[] { entities * 60 / 100, entities * 25 / 100, 0 };
+        targetCounts[2] = entities - targetCounts[0] - targetCounts[1];
+        
+        Random seeded = new Random(42);
+        for (int a = 0; a < archetypes.length; a++) {
+            for (int i = 0; i < targetCounts[a]; i++) {
+                int x = seeded.nextInt(GameWorld.WIDTH - 100);
+                int y = TOP + seeded.nextInt(GameWorld.HEIGHT - TOP);
+                if (a == 2) {
+                    PowerUpObject powerUp = new PowerUpObject(x, y, 0);
+                    powerUps.add(powerUp);
+                    powerUpEntries.add(powerUpGrid.insert(powerUp, x, y, PowerUp.SIZE, PowerUp.SIZE));
+                    store.spawn(archetypes[a], x, y, 0, GameWorld.POWER_UP_SPEED, 0);
+                } else {
+                    int type = a == 0 ? ObstacleCar.TYPE_CAR : ObstacleCar.TYPE_TRUCK;
+                    ObstacleCar obstacle = new ObstacleCar(x, y, GameWorld.OBSTACLE_SPEED, type);
+                    obstacles.add(obstacle);
+                    obstacleEntries.add(obstacleGrid.insert(obstacle, x, y, obstacle.getWidth(), obstacle.getHeight()));
+                    store.spawn(archetypes[a], x, y, 0, GameWorld.OBSTACLE_SPEED, 0);
+                }
+            }
+        }
+    }
+    
+    @Benchmark
+    public int objectModel() {
+        time += 16;
+        int hits = 0;
+        for (int i = 0; i < obstacles.size(); i++) {
+            ObstacleCar obstacle = obstacles.get(i);
+            obstacle.update(GameWorld.HEIGHT);
+            if (!obstacle.isActive()) {
+                obstacle.reset(random.nextInt(GameWorld.WIDTH - 100), TOP, GameWorld.OBSTACLE_SPEED, obstacle.getType());
+            }
+            obstacleGrid.update(obstacleEntries.get(i),
+                obstacle.getX(), obstacle.getY(), obstacle.getWidth(), obstacle.getHeight());
+        }
+        obstacleCandidates.clear();
+        obstacleGrid.query(PLAYER_X, PLAYER_Y, PLAYER_WIDTH, PLAYER_HEIGHT, obstacleCandidates);
+        for (int i = 0; i < obstacleCandidates.size(); i++) {
+            if (obstacleCandidates.get(i).intersects(PLAYER_X, PLAYER_Y, PLAYER_WIDTH, PLAYER_HEIGHT)) {
+                hits++;
+            }
+        }
+        
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUpObject powerUp = powerUps.get(i);
+            powerUp.update(time);
+            if (powerUp.isOffScreen()) {
+                powerUp.reset(random.nextInt(GameWorld.WIDTH - 100), TOP, time);
+            }
+            powerUpGrid.update(powerUpEntries.get(i), powerUp.x, powerUp.y, PowerUp.SIZE, PowerUp.SIZE);
+        }
+        powerUpCandidates.clear();
+        powerUpGrid.query(PLAYER_X, PLAYER_Y, PLAYER_WIDTH, PLAYER_HEIGHT, powerUpCandidates);
+        for (int i = 0; i < powerUpCandidates.size(); i++) {
+            if (powerUpCandidates.get(i).intersects(PLAYER_X, PLAYER_Y, PLAYER_WIDTH, PLAYER_HEIGHT)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+    
+    @Benchmark
+    public int entityStore() {
+        time += 16;
+        store.move(time);
+        store.expire();
+        for (int a = 0; a < archetypes.length; a++) {
+            int vy = a == 2 ? GameWorld.POWER_UP_SPEED : GameWorld.OBSTACLE_SPEED;
+            for (int i = archetypes[a].getCount(); i < targetCounts[a]; i++) {
+                store.spawn(archetypes[a], random.nextInt(GameWorld.WIDTH - 100), TOP, 0, vy, time);
+            }
+        }
+        return store.collide(PLAYER_X, PLAYER_Y, PLAYER_WIDTH, PLAYER_HEIGHT, null);
+    }
+}
@@ -0,0 +1,41 @@
+package highwayescape;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * What the profiler hooks in GameWorld.tick() cost with the overlay off
+ * and on. A world that ends is reset so every call simulates a tick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class FrameProfilerBenchmark {
+    @Param({"false", "true"})
+    public boolean profiling;
+    
+    private GameWorld world;
+    private FrameProfiler profiler;
+    
+    @Setup
+    public void setUp() {
+        Main.prepareAssets();
+        world = new GameWorld(42);
+        profiler = new FrameProfiler();
+        profiler.setEnabled(profiling);
+        world.setProfiler(profiler);
+    }
+    
+    @Benchmark
+    public long tick() {
+        profiler.beginFrame();
+        if (!world.tick()) {
+            world.reset();
+        }
+        profiler.endFrame(world.getObstacleCount(), world.getPowerUpCount(), 0);
+        return world.getTicks();
+    }
+}
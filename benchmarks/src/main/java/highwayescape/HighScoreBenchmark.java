@@ -0,0 +1,129 @@
+package highwayescape;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * High score persistence with a full table. addHighScore is what the
+ * game-over handler pays, now that the save is queued; addHighScoreAndFlush
+ * waits for it to reach the disk. The save and load pairs compare the old
+ * serialized file with the binary one; saveAtomic includes the fsync and
+ * rename that make it crash-safe, saveLegacy is the old plain overwrite.
+ * getHighScores hands out the shared snapshot; copyHighScores is the copy
+ * the getter used to make on every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class HighScoreBenchmark {
+    private Path file;
+    private Path legacyFile;
+    private Path binaryFile;
+    private HighScoreManager manager;
+    private List<HighScoreManager.HighScoreEntry> table;
+    private byte[] binary;
+    private int nextScore;
+    
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("highscores", ".dat");
+        Files.delete(file);
+        manager = new HighScoreManager(file.toString());
+        for (int i = 0; i < 10; i++) {
+            manager.addHighScore("Player" + i, i * 100, 1, "Level 1");
+        }
+        manager.flush();
+        nextScore = 1000;
+        
+        table = manager.getHighScores();
+        binary = HighScoreManager.encode(table);
+        legacyFile = Files.createTempFile("highscores-legacy", ".dat");
+        binaryFile = Files.createTempFile("highscores-binary", ".dat");
+        saveLegacy();
+        HighScoreManager.writeAtomically(table, binaryFile.toFile());
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        manager.flush();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(legacyFile);
+        Files.deleteIfExists(binaryFile);
+    }
+    
+    @Benchmark
+    public int addHighScore() {
+        // Always a new best, so every call inserts, re-sorts and saves
+        manager.addHighScore("Bench", nextScore++, 3, "Level 3");
+        return manager.getHighScores().size();
+    }
+    
+    @Benchmark
+    public int addHighScoreAndFlush() {
+        manager.addHighScore("Bench", nextScore++, 3, "Level 3");
+        manager.flush();
+        return manager.getHighScores().size();
+    }
+    
+    @Benchmark
+    public List<HighScoreManager.HighScoreEntry> getHighScores() {
+        return manager.getHighScores();
+    }
+    
+    @Benchmark
+    public List<HighScoreManager.HighScoreEntry> copyHighScores() {
+        return new ArrayList<>(manager.getHighScores());
+    }
+    
+    @Benchmark
+    public byte[] encodeLegacy() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(new ArrayList<>(table));
+        }
+        return bytes.toByteArray();
+    }
+    
+    @Benchmark
+    public byte[] encodeBinary() throws IOException {
+        return HighScoreManager.encode(table);
+    }
+    
+    @Benchmark
+    public List<HighScoreManager.HighScoreEntry> decodeBinary() throws IOException {
+        return HighScoreManager.decode(binary);
+    }
+    
+    @Benchmark
+    public void saveLegacy() throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(legacyFile.toFile()))) {
+            oos.writeObject(new ArrayList<>(table));
+        }
+    }
+    
+    @Benchmark
+    public void saveAtomic() throws IOException {
+        HighScoreManager.writeAtomically(table, binaryFile.toFile());
+    }
+    
+    @Benchmark
+    public List<HighScoreManager.HighScoreEntry> loadLegacy() throws IOException {
+        return HighScoreManager.read(legacyFile.toFile());
+    }
+    
+    @Benchmark
+    public List<HighScoreManager.HighScoreEntry> loadBinary() throws IOException {
+        return HighScoreManager.read(binaryFile.toFile());
+    }
+}
@@ -0,0 +1,98 @@
+package highwayescape;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * One frame of the in-game HUD (score, lives, level, key hints and a
+ * power-up line). The score changes every sixth frame, as it does at
+ * 60 FPS. drawStringHud is
+ * what GamePanel used to do: new fonts and colors, string concatenation
+ * and drawString. cachedHud draws the same pixels through HudText's
+ * cached fonts, labels and counters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class HudTextBenchmark {
+    private static final int WIDTH = GameWorld.WIDTH, HEIGHT = GameWorld.HEIGHT;
+    
+    private BufferedImage backBuffer;
+    private Graphics2D g2d;
+    private long score;
+    
+    private HudText.Counter scoreCounter, livesCounter, levelCounter;
+    private HudText.Label scoreLabel, livesLabel, levelLabel;
+    private HudText.Label moveHint, pauseHint, musicHint, invincibleLabel;
+    
+    @Setup
+    public void setUp() {
+        backBuffer = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2d = backBuffer.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+        HudText.Style hud = new HudText.Style(new Font("Arial", Font.BOLD, 18), Color.WHITE);
+        HudText.Style hint = new HudText.Style(new Font("Arial", Font.PLAIN, 12), new Color(255, 255, 255, 150));
+        scoreCounter = new HudText.Counter(hud);
+        livesCounter = new HudText.Counter(hud);
+        levelCounter = new HudText.Counter(hud);
+        scoreLabel = new HudText.Label(hud, "Score: ");
+        livesLabel = new HudText.Label(hud, "Lives: ");
+        levelLabel = new HudText.Label(hud, "Level: ");
+        moveHint = new HudText.Label(hint, "WASD/Arrows: Move");
+        pauseHint = new HudText.Label(hint, "P: Pause");
+        musicHint = new HudText.Label(hint, "M: Music On/Off");
+        invincibleLabel = new HudText.Label(new HudText.Style(hud.getFont(), Color.YELLOW), "INVINCIBLE");
+    }
+    
+    @TearDown
+    public void tearDown() {
+        g2d.dispose();
+    }
+    
+    @Benchmark
+    public BufferedImage drawStringHud() {
+        score++;
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(new Font("Arial", Font.BOLD, 18));
+        g2d.drawString("Score: " + score / 6, 20, 30);
+        g2d.drawString("Lives: " + 3 + "/" + 5, 20, 55);
+        g2d.drawString("Level: " + 4, 20, 80);
+        
+        g2d.setFont(new Font("Arial", Font.PLAIN, 12));
+        g2d.setColor(new Color(255, 255, 255, 150));
+        g2d.drawString("WASD/Arrows: Move", WIDTH - 120, HEIGHT - 60);
+        g2d.drawString("P: Pause", WIDTH - 120, HEIGHT - 45);
+        g2d.drawString("M: Music On/Off", WIDTH - 120, HEIGHT - 30);
+        
+        g2d.setFont(new Font("Arial", Font.BOLD, 18));
+        g2d.setColor(Color.YELLOW);
+        g2d.drawString("INVINCIBLE", 20, 105);
+        return backBuffer;
+    }
+    
+    @Benchmark
+    public BufferedImage cachedHud() {
+        score++;
+        scoreLabel.draw(g2d, 20, 30);
+        scoreCounter.draw(g2d, score / 6, 20 + scoreLabel.getWidth(), 30);
+        livesLabel.draw(g2d, 20, 55);
+        livesCounter.drawFraction(g2d, 3, 5, 20 + livesLabel.getWidth(), 55);
+        levelLabel.draw(g2d, 20, 80);
+        levelCounter.draw(g2d, 4, 20 + levelLabel.getWidth(), 80);
+        invincibleLabel.draw(g2d, 20, 105);
+        
+        moveHint.draw(g2d, WIDTH - 120, HEIGHT - 60);
+        pauseHint.draw(g2d, WIDTH - 120, HEIGHT - 45);
+        musicHint.draw(g2d, WIDTH - 120, HEIGHT - 30);
+        return backBuffer;
+    }
+}
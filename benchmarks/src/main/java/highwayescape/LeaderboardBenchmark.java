@@ -0,0 +1,97 @@
+package highwayescape;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Leaderboard queries with a million and ten million runs recorded. Each
+ * query is one walk down a tree, so they should barely move between the
+ * two sizes; linearRank scans a plain array of the same scores, which is
+ * what ranking a score costs without the index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class LeaderboardBenchmark {
+    private static final int MAX_SCORE = 100_000;
+    private static final int DIFFICULTIES = 10;
+    private static final int PLAYERS = 10_000;
+    
+    @Param({"1000000", "10000000"})
+    public int entries;
+    
+    private Path directory;
+    private LeaderboardStore store;
+    private int[] scores;
+    private final Random random = new Random(7);
+    
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("leaderboard");
+        store = LeaderboardStore.open(directory.resolve("leaderboard.dat").toFile());
+        scores = new int[entries];
+        Random seeded = new Random(42);
+        for (int i = 0; i < entries; i++) {
+            scores[i] = seeded.nextInt(MAX_SCORE);
+            store.add("Player" + seeded.nextInt(PLAYERS), scores[i], seeded.nextInt(DIFFICULTIES), i);
+        }
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        for (File file : directory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory);
+    }
+    
+    @Benchmark
+    public long add() throws IOException {
+        return store.add("Bench", random.nextInt(MAX_SCORE), random.nextInt(DIFFICULTIES), 0L);
+    }
+    
+    @Benchmark
+    public long rank() {
+        return store.getRank(random.nextInt(MAX_SCORE));
+    }
+    
+    @Benchmark
+    public long difficultyRank() {
+        return store.getRank(random.nextInt(MAX_SCORE), random.nextInt(DIFFICULTIES));
+    }
+    
+    @Benchmark
+    public List<LeaderboardStore.Entry> top10() {
+        return store.getTop(10);
+    }
+    
+    @Benchmark
+    public List<LeaderboardStore.Entry> difficultyTop10() {
+        return store.getTop(10, random.nextInt(DIFFICULTIES));
+    }
+    
+    @Benchmark
+    public LeaderboardStore.Entry playerBest() {
+        return store.getPlayerBest("Player" + random.nextInt(PLAYERS));
+    }
+    
+    @Benchmark
+    public long linearRank() {
+        int score = random.nextInt(MAX_SCORE);
+        long ahead = 0;
+        for (int s : scores) {
+            if (s > score) ahead++;
+        }
+        return ahead + 1;
+    }
+}
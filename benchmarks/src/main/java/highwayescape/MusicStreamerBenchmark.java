@@ -0,0 +1,71 @@
+package highwayescape;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Time until a music track starts playing. fullLoad reads the whole track
+ * into memory, which is what Clip.open() does with it; streamStart starts a
+ * MusicStreamer into a null sink and waits for its first write. Run with
+ * -prof gc to compare the heap each one allocates.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class MusicStreamerBenchmark {
+    @Param({"30", "180"})
+    public int trackSeconds;
+    
+    private File track;
+    
+    @Setup(Level.Trial)
+    public void writeTrack() throws IOException {
+        int frames = (int) AudioMixer.SAMPLE_RATE * trackSeconds;
+        byte[] pcm = new byte[frames * AudioMixer.BYTES_PER_FRAME];
+        for (int i = 0; i < pcm.length; i += 2) {
+            short value = (short) (Math.sin(i * 0.01) * 8000);
+            pcm[i] = (byte) value;
+            pcm[i + 1] = (byte) (value >> 8);
+        }
+        track = File.createTempFile("music-" + trackSeconds + "s-", ".wav");
+        track.deleteOnExit();
+        AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(pcm), AudioMixer.FORMAT, frames);
+        AudioSystem.write(stream, AudioFileFormat.Type.WAVE, track);
+    }
+    
+    @Benchmark
+    public byte[] fullLoad() throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(track)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) > 0) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        }
+    }
+    
+    @Benchmark
+    public long streamStart() throws IOException, UnsupportedAudioFileException, InterruptedException {
+        MusicStreamer streamer = new MusicStreamer(track.getPath(), MusicStreamer.DEFAULT_RING_BYTES);
+        streamer.start(new AudioMixer.NullSink(), true);
+        while (streamer.getBytesPlayed() == 0) {
+            Thread.sleep(0, 100000);
+        }
+        long played = streamer.getBytesPlayed();
+        streamer.close();
+        return played;
+    }
+}
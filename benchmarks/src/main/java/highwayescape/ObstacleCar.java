@@ -1,23 +1,34 @@
+package highwayescape;
+
 import java.awt.*;
 import java.awt.image.BufferedImage;
 
-public class ObstacleCar {
+/**
+ * An obstacle as one object, the way GameWorld kept them before it moved
+ * them into EntityStore. Kept as the baseline the benchmarks compare with.
+ */
+public class ObstacleCar implements DenseList.Member {
     // Obstacle types
     public static final int TYPE_CAR = 0;
     public static final int TYPE_TRUCK = 1;
     
     private int x;
     private int y;
+    private int prevY;
     private int width;
     private int height;
     private int speed;
     private BufferedImage sprite;
     private boolean isActive;
-    private int type;
+    private int type = -1;
     
     // For truck type (trailer part)
     private BufferedImage trailerSprite;
     private int trailerY; // Separate Y position for the trailer
+    private BufferedImage truckSprite; // Cab and trailer composed, drawn in one blit
+    
+    // Position in the DenseList holding the car
+    private int denseIndex = -1;
     
     /**
      * Constructor for ObstacleCar
@@ -27,14 +38,36 @@ public class ObstacleCar {
      * @param type Type of obstacle (car or truck)
      */
     public ObstacleCar(int x, int y, int speed, int type) {
+        reset(x, y, speed, type);
+    }
+    
+    /**
+     * Makes this car a freshly spawned obstacle, so one can be reused
+     * @param x Initial x position
+     * @param y Initial y position
+     * @param speed Movement speed
+     * @param type Type of obstacle (car or truck)
+     */
+    public void reset(int x, int y, int speed, int type) {
         this.x = x;
         this.y = y;
+        this.prevY = y;
         this.speed = speed;
-        this.type = type;
         this.isActive = true;
         
+        // A reused car of the same type already has its sprites and size
+        if (type == this.type) {
+            if (type == TYPE_TRUCK) {
+                this.trailerY = y + sprite.getHeight() - AssetLoader.TRAILER_OVERLAP;
+            }
+            return;
+        }
+        this.type = type;
+        
         if (type == TYPE_CAR) {
             this.sprite = AssetLoader.loadImage(AssetLoader.ENEMY_CAR);
+            this.trailerSprite = null;
+            this.truckSprite = null;
             this.width = sprite.getWidth();
             this.height = sprite.getHeight();
         } else if (type == TYPE_TRUCK) {
@@ -42,11 +75,12 @@ public class ObstacleCar {
             this.sprite = AssetLoader.loadImage(AssetLoader.TRUCK_CAB);
             // Load truck trailer sprite (back part)
             this.trailerSprite = AssetLoader.loadImage(AssetLoader.TRUCK_TRAILER);
+            this.truckSprite = AssetLoader.loadTruckImage();
             
             this.width = Math.max(sprite.getWidth(), trailerSprite.getWidth());
             
             // Total height is combined height with some overlap
-            int overlap = 40; // Adjust this value for how much the trailer overlaps with the cab
+            int overlap = AssetLoader.TRAILER_OVERLAP;
             this.height = sprite.getHeight() + trailerSprite.getHeight() - overlap;
             
             // Position cab at the front (y)
@@ -61,6 +95,7 @@ public class ObstacleCar {
      */
     public void update(int gameHeight) {
         // Update positions
+        prevY = y;
         y += speed;
         
         if (type == TYPE_TRUCK) {
@@ -83,17 +118,19 @@ public class ObstacleCar {
     /**
      * Renders the obstacle car
      * @param g2d Graphics2D object for rendering
+     * @param alpha Interpolation factor between the previous and current tick
      */
-    public void render(Graphics2D g2d) {
+    public void render(Graphics2D g2d, double alpha) {
         if (!isActive) return;
         
+        // Obstacles only move vertically, so the trailer shares the cab's offset
+        int offset = (int) Math.round((prevY - y) * (1 - alpha));
+        
         if (type == TYPE_CAR) {
-            g2d.drawImage(sprite, x, y, null);
+            g2d.drawImage(sprite, x, y + offset, null);
         } else if (type == TYPE_TRUCK) {
-            // Draw the cab (it's in front/below the trailer)
-            g2d.drawImage(sprite, x, y, null);
-            // Draw the trailer (it's behind/above the cab)
-            g2d.drawImage(trailerSprite, x, trailerY, null);
+            // Cab and trailer come pre-composed with the trailer at trailerY
+            g2d.drawImage(truckSprite, x, y + offset, null);
         }
     }
     
@@ -142,6 +179,19 @@ public class ObstacleCar {
         return new Rectangle[]{new Rectangle(x, y, width, height)};
     }
     
+    /**
+     * Allocation-free version of testing every rectangle from getDetailedBounds()
+     * @return true if the given box overlaps the car, or the truck's cab or trailer
+     */
+    public boolean intersects(int x, int y, int width, int height) {
+        if (type == TYPE_TRUCK) {
+            return Bounds.intersects(this.x, this.y, sprite.getWidth(), sprite.getHeight(), x, y, width, height)
+                || Bounds.intersects(this.x, trailerY, trailerSprite.getWidth(), trailerSprite.getHeight(),
+                                     x, y, width, height);
+        }
+        return Bounds.intersects(this.x, this.y, this.width, this.height, x, y, width, height);
+    }
+    
     // Getters and setters
     public boolean isActive() {
         return isActive;
@@ -170,4 +220,14 @@ public class ObstacleCar {
     public int getType() {
         return type;
     }
+    
+    @Override
+    public int getDenseIndex() {
+        return denseIndex;
+    }
+    
+    @Override
+    public void setDenseIndex(int index) {
+        denseIndex = index;
+    }
 }
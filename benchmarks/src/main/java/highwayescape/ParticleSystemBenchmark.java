@@ -0,0 +1,61 @@
+package highwayescape;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of one particle update and one particle draw into an offscreen frame
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ParticleSystemBenchmark {
+    @Param({"100", "1000"})
+    public int population;
+    
+    private ParticleSystem particles;
+    private BufferedImage frame;
+    private Graphics2D g2d;
+    
+    @Setup
+    public void setUp() {
+        particles = new ParticleSystem();
+        frame = new BufferedImage(GameWorld.WIDTH, GameWorld.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2d = frame.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        refill();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        g2d.dispose();
+    }
+    
+    // Keeps the live particle count near the requested population
+    private void refill() {
+        while (particles.getCount() < population) {
+            particles.createExplosion(GameWorld.WIDTH / 2, GameWorld.HEIGHT / 2, Color.RED, 30);
+        }
+    }
+    
+    @Benchmark
+    public int update() {
+        refill();
+        particles.update();
+        return particles.getCount();
+    }
+    
+    @Benchmark
+    public BufferedImage draw() {
+        refill();
+        particles.draw(g2d);
+        return frame;
+    }
+}
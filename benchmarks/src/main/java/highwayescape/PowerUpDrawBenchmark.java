@@ -0,0 +1,72 @@
+package highwayescape;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of drawing one power-up into a frame-sized back buffer with
+ * antialiasing on, as GamePanel does. vectorDraw is the glow, disc and
+ * symbol power-ups used to rasterize on every frame; spriteDraw is the
+ * EntityStore render of one power-up, a single blit of the cached sprite.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PowerUpDrawBenchmark {
+    @Param({"INVINCIBILITY", "SCORE_MULTIPLIER"})
+    public PowerUp.PowerUpType type;
+    
+    private BufferedImage backBuffer;
+    private Graphics2D g2d;
+    private EntityStore store;
+    private EntityStore.Archetype powerUps;
+    private String symbol;
+    
+    @Setup
+    public void setUp() {
+        backBuffer = new BufferedImage(GameWorld.WIDTH, GameWorld.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2d = backBuffer.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        store = new EntityStore();
+        powerUps = store.register(EntityStore.Archetype.powerUp(type));
+        store.spawn(powerUps, 200, 200, 0, 0, 0);
+        symbol = type == PowerUp.PowerUpType.INVINCIBILITY ? "★" : "2x";
+    }
+    
+    @TearDown
+    public void tearDown() {
+        g2d.dispose();
+    }
+    
+    @Benchmark
+    public BufferedImage vectorDraw() {
+        int x = 200, y = 200, size = PowerUp.SIZE;
+        Color color = type.getColor();
+        g2d.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 50));
+        g2d.fillOval(x - 10, y - 10, size + 20, size + 20);
+        
+        g2d.setColor(color);
+        g2d.fillOval(x, y, size, size);
+        
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(new Font("Arial", Font.BOLD, 16));
+        FontMetrics fm = g2d.getFontMetrics();
+        g2d.drawString(symbol, x + (size - fm.stringWidth(symbol)) / 2, y + (size + fm.getAscent()) / 2);
+        return backBuffer;
+    }
+    
+    @Benchmark
+    public BufferedImage spriteDraw() {
+        store.render(g2d, powerUps, 1.0);
+        return backBuffer;
+    }
+}
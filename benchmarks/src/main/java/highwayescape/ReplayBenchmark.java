@@ -0,0 +1,69 @@
+package highwayescape;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Replays of a whole game, recorded from a driver that holds a random
+ * combination of keys for a random time. play is one headless playback
+ * from the seed to game over; divide by the tick count printed at setup
+ * for the time per tick. encode and decode are the file format alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ReplayBenchmark {
+    private Replay replay;
+    private byte[] encoded;
+    
+    @Setup
+    public void setUp() throws IOException {
+        Main.prepareAssets();
+        replay = record(42);
+        encoded = replay.encode();
+        if (!replay.matches(Replay.decode(encoded).play())) {
+            throw new IllegalStateException("Replay diverged from its recording");
+        }
+        System.out.printf("%nReplay of %d ticks, score %d: %d input runs in %d bytes%n",
+            replay.getTicks(), replay.getFinalScore(), replay.getRunCount(), encoded.length);
+    }
+    
+    /**
+     * Plays one game with a random driver and records it
+     */
+    static Replay record(long seed) {
+        GameWorld world = new GameWorld(seed);
+        Replay.Recorder recorder = new Replay.Recorder(seed);
+        world.setRecorder(recorder);
+        
+        Random driver = new Random(seed);
+        int held = 0;
+        while (world.tick()) {
+            if (--held <= 0) {
+                world.setInput(driver.nextInt(16));
+                held = 10 + driver.nextInt(50);
+            }
+        }
+        return recorder.finish(world.getScore());
+    }
+    
+    @Benchmark
+    public long play() {
+        return replay.play().getScore();
+    }
+    
+    @Benchmark
+    public byte[] encode() {
+        return replay.encode();
+    }
+    
+    @Benchmark
+    public Replay decode() throws IOException {
+        return Replay.decode(encoded);
+    }
+}
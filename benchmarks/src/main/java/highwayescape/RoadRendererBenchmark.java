@@ -0,0 +1,69 @@
+package highwayescape;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Background cost per frame: the old pair of scaled drawImage() calls on
+ * the decoded road image against RoadRenderer's pre-scaled slices. The
+ * road is tested at the panel size and at a size that needs scaling.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RoadRendererBenchmark {
+    @Param({"500x700", "400x600"})
+    public String roadSize;
+    
+    private BufferedImage backBuffer;
+    private Graphics2D g2d;
+    private BufferedImage road;
+    private RoadRenderer roadRenderer;
+    private int scrollY;
+    
+    @Setup
+    public void setUp() throws IOException {
+        Main.prepareAssets();
+        
+        backBuffer = new BufferedImage(GameWorld.WIDTH, GameWorld.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2d = backBuffer.createGraphics();
+        
+        // Decoded as-is, the way the panel used to keep it
+        BufferedImage decoded = ImageIO.read(new File(AssetLoader.ROAD_BACKGROUND));
+        String[] size = roadSize.split("x");
+        road = new BufferedImage(Integer.parseInt(size[0]), Integer.parseInt(size[1]), decoded.getType());
+        Graphics2D g = road.createGraphics();
+        g.drawImage(decoded, 0, 0, road.getWidth(), road.getHeight(), null);
+        g.dispose();
+        
+        roadRenderer = new RoadRenderer(road, GameWorld.WIDTH, GameWorld.HEIGHT);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        g2d.dispose();
+    }
+    
+    @Benchmark
+    public BufferedImage scaledDrawImage() {
+        scrollY = (scrollY + 3) % GameWorld.HEIGHT;
+        g2d.drawImage(road, 0, scrollY, GameWorld.WIDTH, GameWorld.HEIGHT, null);
+        g2d.drawImage(road, 0, scrollY - GameWorld.HEIGHT, GameWorld.WIDTH, GameWorld.HEIGHT, null);
+        return backBuffer;
+    }
+    
+    @Benchmark
+    public BufferedImage roadRenderer() {
+        scrollY = (scrollY + 3) % GameWorld.HEIGHT;
+        roadRenderer.draw(g2d, scrollY);
+        return backBuffer;
+    }
+}
@@ -0,0 +1,92 @@
+package highwayescape;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * What triggering a sound effect costs the game tick. directPlay starts a
+ * voice on the calling thread, contending for the mixer's lock with its
+ * mixing thread. enqueue hands the command to SoundCommandQueue, drained
+ * by a consumer thread that starts the voice, with a different sound each
+ * time; enqueueRepeated triggers the same sound, so most calls coalesce.
+ * Sampled, since the tail is what shows up as a frame spike.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class SoundCommandQueueBenchmark {
+    private static final int KEYS = 8;
+    
+    private AudioMixer mixer;
+    private AudioMixer.Sample[] samples;
+    private SoundCommandQueue queue;
+    private Thread consumer;
+    private volatile boolean running;
+    private volatile boolean consumerWaiting;
+    private int next;
+    
+    @Setup
+    public void setUp() throws Exception {
+        byte[] pcm = new byte[(int) AudioMixer.SAMPLE_RATE / 10 * AudioMixer.BYTES_PER_FRAME];
+        samples = new AudioMixer.Sample[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            samples[i] = AudioMixer.Sample.fromPcm(AudioMixer.FORMAT, pcm, i % 3);
+        }
+        mixer = new AudioMixer(new AudioMixer.NullSink(), AudioMixer.DEFAULT_VOICES);
+        mixer.start();
+        
+        queue = new SoundCommandQueue(64, KEYS);
+        SoundCommandQueue.Handler handler = (command, key, arg, nanos) -> mixer.play(samples[key], 1f);
+        running = true;
+        consumer = new Thread(() -> {
+            while (running) {
+                if (queue.drain(handler) == 0) {
+                    consumerWaiting = true;
+                    if (queue.isEmpty()) {
+                        LockSupport.parkNanos(this, 50_000_000L);
+                    }
+                    consumerWaiting = false;
+                }
+            }
+        }, "sound-commands");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+    
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join();
+        mixer.close();
+    }
+    
+    @Benchmark
+    public boolean directPlay() {
+        next = (next + 1) % KEYS;
+        return mixer.play(samples[next], 1f);
+    }
+    
+    @Benchmark
+    public boolean enqueue() {
+        next = (next + 1) % KEYS;
+        return offer(next);
+    }
+    
+    @Benchmark
+    public boolean enqueueRepeated() {
+        return offer(0);
+    }
+    
+    private boolean offer(int key) {
+        boolean queued = queue.offer(SoundCommandQueue.PLAY_SOUND, key, 0);
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+        return queued;
+    }
+}
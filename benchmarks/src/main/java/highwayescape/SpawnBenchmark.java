@@ -0,0 +1,51 @@
+package highwayescape;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Worst case of the spawn placement loops: the top of the road is blocked,
+ * so every attempt is rejected after scanning the existing obstacles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SpawnBenchmark {
+    @Param({"10", "100", "1000"})
+    public int obstacleCount;
+    
+    private GameWorld world;
+    
+    @Setup
+    public void setUp() {
+        Main.prepareAssets();
+        world = new GameWorld(42);
+        
+        // Obstacles inside the spawn band that don't block, scanned on every attempt
+        Random random = new Random(7);
+        for (int i = 0; i < obstacleCount; i++) {
+            world.addObstacle(world.getCarKind(), random.nextInt(GameWorld.WIDTH - 80), 140, 0);
+        }
+        
+        // A parked row across the top that rejects every placement
+        for (int x = 0; x < GameWorld.WIDTH; x += 40) {
+            world.addObstacle(world.getCarKind(), x, -60, 0);
+        }
+    }
+    
+    @Benchmark
+    public int spawnObstacle() {
+        world.spawnObstacle();
+        return world.getObstacleCount();
+    }
+    
+    @Benchmark
+    public int spawnPowerUp() {
+        world.spawnPowerUp(0);
+        return world.getPowerUpCount();
+    }
+}
@@ -0,0 +1,111 @@
+package highwayescape;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Several sprites packed into one display-compatible image. Sprites are
+ * placed on shelves, tallest first, with a pixel of padding so filtering
+ * never bleeds a neighbour into a region. Only SpriteDrawBenchmark uses
+ * it; the game draws the compatible sprites AssetLoader keeps.
+ */
+public class SpriteAtlas {
+    private static final int PADDING = 1;
+    private static final int MAX_WIDTH = 1024;
+    
+    private final BufferedImage image;
+    private final Map<String, Region> regions;
+    
+    /**
+     * Location of one sprite inside the atlas image
+     */
+    public static final class Region {
+        private final int x, y, width, height;
+        
+        private Region(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+        
+        public int getX() { return x; }
+        public int getY() { return y; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+    }
+    
+    private SpriteAtlas(BufferedImage image, Map<String, Region> regions) {
+        this.image = image;
+        this.regions = regions;
+    }
+    
+    /**
+     * Packs the given sprites into a new atlas
+     * @param sprites Sprites by name; null images are skipped
+     */
+    public static SpriteAtlas pack(Map<String, BufferedImage> sprites) {
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, BufferedImage> sprite : sprites.entrySet()) {
+            if (sprite.getValue() != null) {
+                names.add(sprite.getKey());
+            }
+        }
+        // Tallest first keeps the shelves tight
+        Collections.sort(names, (a, b) -> sprites.get(b).getHeight() - sprites.get(a).getHeight());
+        
+        Map<String, Region> regions = new HashMap<>();
+        int shelfX = 0, shelfY = 0, shelfHeight = 0;
+        int atlasWidth = 1, atlasHeight = 1;
+        for (String name : names) {
+            BufferedImage sprite = sprites.get(name);
+            if (shelfX > 0 && shelfX + sprite.getWidth() > MAX_WIDTH) {
+                shelfY += shelfHeight + PADDING;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+            regions.put(name, new Region(shelfX, shelfY, sprite.getWidth(), sprite.getHeight()));
+            atlasWidth = Math.max(atlasWidth, shelfX + sprite.getWidth());
+            atlasHeight = Math.max(atlasHeight, shelfY + sprite.getHeight());
+            shelfX += sprite.getWidth() + PADDING;
+            shelfHeight = Math.max(shelfHeight, sprite.getHeight());
+        }
+        
+        BufferedImage image = AssetLoader.createCompatibleImage(atlasWidth, atlasHeight, Transparency.TRANSLUCENT);
+        Graphics2D g = image.createGraphics();
+        for (String name : names) {
+            Region region = regions.get(name);
+            g.drawImage(sprites.get(name), region.x, region.y, null);
+        }
+        g.dispose();
+        
+        return new SpriteAtlas(image, regions);
+    }
+    
+    /**
+     * Draws a region with its top-left corner at the given position
+     */
+    public void draw(Graphics2D g2d, Region region, int x, int y) {
+        g2d.drawImage(image,
+            x, y, x + region.width, y + region.height,
+            region.x, region.y, region.x + region.width, region.y + region.height,
+            null);
+    }
+    
+    /**
+     * @return The region packed under this name, or null if there is none
+     */
+    public Region getRegion(String name) {
+        return regions.get(name);
+    }
+    
+    public BufferedImage getImage() {
+        return image;
+    }
+}
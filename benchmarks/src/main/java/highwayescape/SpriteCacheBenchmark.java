@@ -0,0 +1,60 @@
+package highwayescape;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * SpriteCache lookups shared between threads, and inserts into a full
+ * cache that has to evict the least recently used sprite each time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class SpriteCacheBenchmark {
+    private static final int SPRITE_SIZE = 32;
+    
+    @Param({"16", "256"})
+    public int residentSprites;
+    
+    private SpriteCache cache;
+    private String[] keys;
+    private BufferedImage sprite;
+    private long nextKey;
+    
+    @Setup
+    public void setUp() {
+        sprite = new BufferedImage(SPRITE_SIZE, SPRITE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        cache = new SpriteCache(residentSprites * SpriteCache.sizeOf(sprite));
+        keys = new String[residentSprites];
+        for (int i = 0; i < residentSprites; i++) {
+            keys[i] = "sprite-" + i;
+            cache.put(keys[i], sprite, i < 4);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public BufferedImage getHit(Cursor cursor) {
+        cursor.index = (cursor.index + 1) % keys.length;
+        return cache.get(keys[cursor.index]);
+    }
+    
+    @Benchmark
+    public BufferedImage putEvict() {
+        return cache.put("extra-" + nextKey++, sprite, false);
+    }
+    
+    @TearDown
+    public void report() {
+        System.out.println(cache);
+    }
+}
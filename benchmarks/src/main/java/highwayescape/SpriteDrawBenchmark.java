@@ -0,0 +1,116 @@
+package highwayescape;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of one sprite blit into a frame-sized back buffer, comparing the
+ * image as ImageIO decodes it, the compatible copy AssetLoader keeps and
+ * the sprite's region in the atlas. Trucks compare the old cab + trailer
+ * pair of blits with the pre-composed truck sprite.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SpriteDrawBenchmark {
+    private BufferedImage backBuffer;
+    private Graphics2D g2d;
+    
+    private BufferedImage decodedCar;
+    private BufferedImage decodedCab;
+    private BufferedImage decodedTrailer;
+    private BufferedImage car;
+    private BufferedImage cab;
+    private BufferedImage trailer;
+    private BufferedImage truck;
+    private SpriteAtlas atlas;
+    private SpriteAtlas.Region carRegion;
+    private SpriteAtlas.Region truckRegion;
+    private int trailerY;
+    
+    @Setup
+    public void setUp() throws IOException {
+        Main.prepareAssets();
+        AssetLoader.clearCache();
+        
+        backBuffer = new BufferedImage(GameWorld.WIDTH, GameWorld.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2d = backBuffer.createGraphics();
+        
+        decodedCar = ImageIO.read(new File(AssetLoader.ENEMY_CAR));
+        decodedCab = ImageIO.read(new File(AssetLoader.TRUCK_CAB));
+        decodedTrailer = ImageIO.read(new File(AssetLoader.TRUCK_TRAILER));
+        
+        car = AssetLoader.loadImage(AssetLoader.ENEMY_CAR);
+        cab = AssetLoader.loadImage(AssetLoader.TRUCK_CAB);
+        trailer = AssetLoader.loadImage(AssetLoader.TRUCK_TRAILER);
+        truck = AssetLoader.loadTruckImage();
+        
+        Map<String, BufferedImage> sprites = new LinkedHashMap<>();
+        sprites.put(AssetLoader.PLAYER_CAR, AssetLoader.loadImage(AssetLoader.PLAYER_CAR));
+        sprites.put(AssetLoader.ENEMY_CAR, car);
+        sprites.put(AssetLoader.TRUCK, truck);
+        atlas = SpriteAtlas.pack(sprites);
+        carRegion = atlas.getRegion(AssetLoader.ENEMY_CAR);
+        truckRegion = atlas.getRegion(AssetLoader.TRUCK);
+        trailerY = 200 + cab.getHeight() - AssetLoader.TRAILER_OVERLAP;
+    }
+    
+    @TearDown
+    public void tearDown() {
+        g2d.dispose();
+    }
+    
+    @Benchmark
+    public BufferedImage carDecoded() {
+        g2d.drawImage(decodedCar, 200, 200, null);
+        return backBuffer;
+    }
+    
+    @Benchmark
+    public BufferedImage carCompatible() {
+        g2d.drawImage(car, 200, 200, null);
+        return backBuffer;
+    }
+    
+    @Benchmark
+    public BufferedImage carAtlas() {
+        atlas.draw(g2d, carRegion, 200, 200);
+        return backBuffer;
+    }
+    
+    @Benchmark
+    public BufferedImage truckDecodedParts() {
+        g2d.drawImage(decodedCab, 200, 200, null);
+        g2d.drawImage(decodedTrailer, 200, trailerY, null);
+        return backBuffer;
+    }
+    
+    @Benchmark
+    public BufferedImage truckCompatibleParts() {
+        g2d.drawImage(cab, 200, 200, null);
+        g2d.drawImage(trailer, 200, trailerY, null);
+        return backBuffer;
+    }
+    
+    @Benchmark
+    public BufferedImage truckComposite() {
+        g2d.drawImage(truck, 200, 200, null);
+        return backBuffer;
+    }
+    
+    @Benchmark
+    public BufferedImage truckAtlas() {
+        atlas.draw(g2d, truckRegion, 200, 200);
+        return backBuffer;
+    }
+}
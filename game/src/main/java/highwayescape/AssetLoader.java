@@ -0,0 +1,247 @@
+package highwayescape;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import javax.imageio.ImageIO;
+
+public class AssetLoader {
+    // Safe to fill from several loader threads at once
+    private static final SpriteCache imageCache = new SpriteCache();
+    
+    // Pre-decoded pixels, preferred over the loose PNG files when present
+    private static final String ASSET_PACK_FILE = System.getProperty("highway.assetPack", AssetPack.DEFAULT_FILE);
+    private static AssetPack assetPack;
+    private static boolean assetPackOpened;
+    
+    // Asset paths
+    public static final String PLAYER_CAR = "assets/player_car.png";
+    public static final String ENEMY_CAR = "assets/enemy_car.png";
+    public static final String ROAD_BACKGROUND = "assets/road.png";
+    public static final String TRUCK_CAB = "assets/truck_cab.png";
+    public static final String TRUCK_TRAILER = "assets/truck_trailer.png";
+    
+    // How far the trailer overlaps the cab
+    public static final int TRAILER_OVERLAP = 40;
+    
+    // Cache key of the truck with its trailer already drawn in
+    public static final String TRUCK = "truck";
+    
+    // Sprites drawn every frame, never evicted from the cache
+    private static final Set<String> PINNED = new HashSet<>(Arrays.asList(
+        PLAYER_CAR, ENEMY_CAR, ROAD_BACKGROUND, TRUCK_CAB, TRUCK_TRAILER, TRUCK
+    ));
+    
+    /**
+     * Loads an image from the given path
+     */
+    public static BufferedImage loadImage(String path) {
+        BufferedImage cached = imageCache.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        
+        AssetPack pack = getAssetPack();
+        if (pack != null && pack.hasImage(path)) {
+            return imageCache.put(path, toCompatibleImage(pack.readImage(path)), PINNED.contains(path));
+        }
+        
+        try {
+            BufferedImage image = toCompatibleImage(ImageIO.read(new File(path)));
+            if (image == null) {
+                throw new IOException("Unsupported image format");
+            }
+            // If another thread got there first, this returns its copy
+            return imageCache.put(path, image, PINNED.contains(path));
+        } catch (IOException e) {
+            System.err.println("Failed to load image: " + path);
+            
+            if (path.equals(ROAD_BACKGROUND)) {
+                return createDefaultRoadBackground();
+            }
+            if (path.equals(TRUCK_CAB)) {
+                return createTruckCab();
+            }
+            if (path.equals(TRUCK_TRAILER)) {
+                return createTruckTrailer();
+            }
+            
+            return null;
+        }
+    }
+    
+    private static BufferedImage createDefaultRoadBackground() {
+        BufferedImage roadImage = new BufferedImage(500, 700, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = roadImage.createGraphics();
+        
+        g.setColor(new Color(118, 110, 129));
+        g.fillRect(0, 0, 500, 700);
+        
+        g.setColor(Color.WHITE);
+        int lineWidth = 10;
+        int[] xPositions = {210, 290, 370, 450};
+        for (int x : xPositions) {
+            g.fillRect(x - (lineWidth/2), 0, lineWidth, 700);
+        }
+        
+        g.dispose();
+        imageCache.put(ROAD_BACKGROUND, roadImage, true);
+        return roadImage;
+    }
+    
+    private static BufferedImage createTruckCab() {
+        BufferedImage cabImage = new BufferedImage(80, 60, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = cabImage.createGraphics();
+        
+        g.setColor(new Color(30, 50, 150));
+        g.fillRect(0, 0, 80, 60);
+        g.setColor(Color.LIGHT_GRAY);
+        g.fillRect(10, 10, 60, 20);
+        
+        g.dispose();
+        imageCache.put(TRUCK_CAB, cabImage, true);
+        return cabImage;
+    }
+    
+    private static BufferedImage createTruckTrailer() {
+        BufferedImage trailerImage = new BufferedImage(80, 120, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = trailerImage.createGraphics();
+        
+        g.setColor(Color.DARK_GRAY);
+        g.fillRect(0, 0, 80, 120);
+        g.setColor(Color.BLACK);
+        g.drawRect(5, 5, 70, 110);
+        
+        g.dispose();
+        imageCache.put(TRUCK_TRAILER, trailerImage, true);
+        return trailerImage;
+    }
+    
+    /**
+     * Returns the truck cab and trailer composed into one sprite, laid out
+     * with the trailer overlapping the foot of the cab, so a truck is one blit
+     */
+    public static BufferedImage loadTruckImage() {
+        BufferedImage truck = imageCache.get(TRUCK);
+        if (truck != null) {
+            return truck;
+        }
+        
+        BufferedImage cab = loadImage(TRUCK_CAB);
+        BufferedImage trailer = loadImage(TRUCK_TRAILER);
+        if (cab == null || trailer == null) {
+            return null;
+        }
+        
+        int trailerY = cab.getHeight() - TRAILER_OVERLAP;
+        int width = Math.max(cab.getWidth(), trailer.getWidth());
+        int height = Math.max(cab.getHeight(), trailerY + trailer.getHeight());
+        truck = createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        
+        // Same order as drawing them separately: the trailer ends up on top
+        Graphics2D g = truck.createGraphics();
+        g.drawImage(cab, 0, 0, null);
+        g.drawImage(trailer, 0, trailerY, null);
+        g.dispose();
+        
+        return imageCache.put(TRUCK, truck, true);
+    }
+    
+    /**
+     * Copies an image into the pixel format the screen can draw fastest.
+     * Images that already have that format are returned as they are.
+     */
+    public static BufferedImage toCompatibleImage(BufferedImage image) {
+        if (image == null) return null;
+        
+        BufferedImage compatible = createCompatibleImage(image.getWidth(), image.getHeight(),
+            image.getColorModel().getTransparency());
+        if (compatible.getType() == image.getType()
+                && compatible.getColorModel().equals(image.getColorModel())) {
+            return image;
+        }
+        
+        Graphics2D g = compatible.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return compatible;
+    }
+    
+    /**
+     * Creates an empty image in the screen's pixel format. Without a display
+     * this falls back to the integer formats Java2D's software loops favour.
+     */
+    public static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        
+        int type = transparency == Transparency.OPAQUE
+            ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE;
+        return new BufferedImage(width, height, type);
+    }
+    
+    /**
+     * Opens the asset pack on first use
+     * @return The pack, or null if there is none or it can't be read
+     */
+    public static synchronized AssetPack getAssetPack() {
+        if (!assetPackOpened) {
+            assetPackOpened = true;
+            try {
+                assetPack = AssetPack.open(new File(ASSET_PACK_FILE));
+                if (assetPack != null) {
+                    System.out.println("Using asset pack " + ASSET_PACK_FILE + " (" + assetPack.size() + " entries)");
+                }
+            } catch (IOException | RuntimeException e) {
+                // Fall back to the loose files rather than fail every load
+                System.err.println("Failed to open asset pack " + ASSET_PACK_FILE + ": " + e);
+            }
+        }
+        return assetPack;
+    }
+    
+    /**
+     * Replaces the asset pack, or disables it with null
+     */
+    static synchronized void setAssetPack(AssetPack pack) {
+        assetPack = pack;
+        assetPackOpened = true;
+    }
+    
+    /**
+     * @return The image cache, for its hit, miss and memory statistics
+     */
+    public static SpriteCache getCache() {
+        return imageCache;
+    }
+    
+    /**
+     * Drops every cached image, so the next load decodes from disk again
+     */
+    static synchronized void clearCache() {
+        imageCache.clear();
+    }
+    
+    /**
+     * Preloads all game assets into the cache
+     */
+    public static void preloadAssets() {
+        loadImage(PLAYER_CAR);
+        loadImage(ENEMY_CAR);
+        loadImage(ROAD_BACKGROUND);
+        loadImage(TRUCK_CAB);
+        loadImage(TRUCK_TRAILER);
+        loadTruckImage();
+    }
+}
@@ -0,0 +1,438 @@
+package highwayescape;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * One file holding every sprite as raw pixels and every sound as raw PCM,
+ * so startup needs no PNG or WAV decoding. The file is memory-mapped and
+ * an image is a bulk copy out of the mapping into a new BufferedImage.
+ *
+ * Layout (big-endian): magic, version, entry count, then one index record
+ * per entry (name, kind, offset, length and the image size or audio
+ * format), then the data blocks, each aligned to 8 bytes.
+ *
+ * Build a pack from a directory with
+ *     java -cp game/target/classes highwayescape.AssetPack [sourceDir] [packFile]
+ */
+public class AssetPack {
+    public static final String DEFAULT_FILE = "assets.pack";
+    
+    private static final int MAGIC = 0x4845504B; // "HEPK"
+    private static final int VERSION = 1;
+    private static final byte KIND_IMAGE = 0;
+    private static final byte KIND_SOUND = 1;
+    private static final int HEADER_BYTES = 12;
+    // Smallest index record: an image with an empty name
+    private static final int MIN_RECORD_BYTES = 27;
+    
+    private final MappedByteBuffer data;
+    private final Map<String, Entry> entries;
+    
+    private static final class Entry {
+        byte kind;
+        long offset;
+        int length;
+        
+        // Images
+        int width, height, imageType;
+        
+        // Sounds
+        AudioFormat format;
+    }
+    
+    private AssetPack(MappedByteBuffer data, Map<String, Entry> entries) {
+        this.data = data;
+        this.entries = entries;
+    }
+    
+    /**
+     * Maps a pack file and reads its index, checking that every entry lies
+     * inside the file
+     * @return The pack, or null if the file doesn't exist
+     * @throws IOException If the file is not a pack, or is truncated or damaged
+     */
+    public static AssetPack open(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        
+        MappedByteBuffer data;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        
+        ByteBuffer index = data.duplicate();
+        if (index.remaining() < HEADER_BYTES) {
+            throw new IOException("Asset pack is truncated: " + file);
+        }
+        if (index.getInt() != MAGIC) {
+            throw new IOException("Not an asset pack: " + file);
+        }
+        int version = index.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported asset pack version " + version + ": " + file);
+        }
+        
+        int count = index.getInt();
+        if (count < 0 || count > index.remaining() / MIN_RECORD_BYTES) {
+            throw new IOException("Asset pack is truncated: " + file);
+        }
+        Map<String, Entry> entries = new HashMap<>(count * 2);
+        try {
+            for (int i = 0; i < count; i++) {
+                String name = readString(index);
+                Entry entry = new Entry();
+                entry.kind = index.get();
+                entry.offset = index.getLong();
+                entry.length = index.getInt();
+                if (entry.kind == KIND_IMAGE) {
+                    entry.width = index.getInt();
+                    entry.height = index.getInt();
+                    entry.imageType = index.getInt();
+                } else if (entry.kind == KIND_SOUND) {
+                    AudioFormat.Encoding encoding = new AudioFormat.Encoding(readString(index));
+                    float sampleRate = index.getFloat();
+                    int sampleSizeInBits = index.getInt();
+                    int channels = index.getInt();
+                    int frameSize = index.getInt();
+                    float frameRate = index.getFloat();
+                    boolean bigEndian = index.get() != 0;
+                    entry.format = new AudioFormat(encoding, sampleRate, sampleSizeInBits,
+                        channels, frameSize, frameRate, bigEndian);
+                } else {
+                    throw new IOException("Unknown kind of asset pack entry " + name + ": " + file);
+                }
+                if (!isValid(entry, data.capacity())) {
+                    throw new IOException("Asset pack entry " + name + " is damaged or truncated: " + file);
+                }
+                entries.put(name, entry);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Asset pack is truncated: " + file, e);
+        }
+        return new AssetPack(data, entries);
+    }
+    
+    /**
+     * @return Whether the entry's data lies inside the file and, for an image, fills a supported int image
+     */
+    private static boolean isValid(Entry entry, long capacity) {
+        if (entry.offset < 0 || entry.length < 0 || entry.offset + entry.length > capacity) {
+            return false;
+        }
+        if (entry.kind != KIND_IMAGE) {
+            return true;
+        }
+        boolean intType = entry.imageType == BufferedImage.TYPE_INT_ARGB
+            || entry.imageType == BufferedImage.TYPE_INT_ARGB_PRE || entry.imageType == BufferedImage.TYPE_INT_RGB;
+        return intType && entry.width > 0 && entry.height > 0
+            && (long) entry.width * entry.height * 4 == entry.length;
+    }
+    
+    public boolean hasImage(String name) {
+        Entry entry = entries.get(name);
+        return entry != null && entry.kind == KIND_IMAGE;
+    }
+    
+    public boolean hasSound(String name) {
+        Entry entry = entries.get(name);
+        return entry != null && entry.kind == KIND_SOUND;
+    }
+    
+    /**
+     * Copies an image's pixels out of the pack
+     * @return The image, or null if the pack has no image by that name
+     */
+    public BufferedImage readImage(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null || entry.kind != KIND_IMAGE) {
+            return null;
+        }
+        
+        int[] pixels = new int[entry.width * entry.height];
+        IntBuffer source = slice(entry).asIntBuffer();
+        source.get(pixels);
+        
+        // setDataElements rather than wrapping the array, so Java2D can still accelerate the image
+        BufferedImage image = new BufferedImage(entry.width, entry.height, entry.imageType);
+        image.getRaster().setDataElements(0, 0, entry.width, entry.height, pixels);
+        return image;
+    }
+    
+    /**
+     * Copies a sound's PCM data out of the pack
+     * @return The samples, or null if the pack has no sound by that name
+     */
+    public byte[] readSound(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null || entry.kind != KIND_SOUND) {
+            return null;
+        }
+        byte[] samples = new byte[entry.length];
+        slice(entry).get(samples);
+        return samples;
+    }
+    
+    /**
+     * Streams a sound's PCM data straight from the mapping, without copying
+     * the whole sound onto the heap
+     * @return The stream, or null if the pack has no sound by that name
+     */
+    public AudioInputStream openSound(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null || entry.kind != KIND_SOUND) {
+            return null;
+        }
+        long frames = entry.length / Math.max(1, entry.format.getFrameSize());
+        return new AudioInputStream(new BufferInputStream(slice(entry)), entry.format, frames);
+    }
+    
+    /**
+     * @return The audio format of a sound, or null if the pack has no sound by that name
+     */
+    public AudioFormat getSoundFormat(String name) {
+        Entry entry = entries.get(name);
+        return entry != null && entry.kind == KIND_SOUND ? entry.format : null;
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    private ByteBuffer slice(Entry entry) {
+        ByteBuffer buffer = data.duplicate();
+        buffer.position((int) entry.offset);
+        buffer.limit((int) entry.offset + entry.length);
+        return buffer.slice();
+    }
+    
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+        
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+        
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+        
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+    
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length > buffer.remaining()) {
+            throw new IOException("Asset pack name runs past the end of the file");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Packs every PNG and WAV below a directory. Entries are named like
+     * the runtime paths, "assets/" plus the path relative to the directory,
+     * so a pack built from Assets/ serves AssetLoader's assets/... paths.
+     * @return Number of entries written
+     */
+    public static int build(File sourceDir, File packFile) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<byte[]> blobs = new ArrayList<>();
+        List<Entry> packed = new ArrayList<>();
+        collect(sourceDir, "assets/", names, blobs, packed);
+        
+        // Index records are fixed size apart from names, so measure once with zero offsets
+        int indexSize = writeIndex(names, packed, new ByteArrayOutputStream()).size();
+        long offset = align(indexSize);
+        for (int i = 0; i < packed.size(); i++) {
+            packed.get(i).offset = offset;
+            offset = align(offset + blobs.get(i).length);
+        }
+        
+        // Written beside the pack and moved over it, so the game never maps a half-written pack
+        Path target = packFile.getAbsoluteFile().toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            ByteArrayOutputStream index = writeIndex(names, packed, new ByteArrayOutputStream());
+            index.writeTo(out);
+            long position = index.size();
+            for (int i = 0; i < blobs.size(); i++) {
+                long start = packed.get(i).offset;
+                out.write(new byte[(int) (start - position)]);
+                out.write(blobs.get(i));
+                position = start + blobs.get(i).length;
+            }
+            out.getChannel().force(true);
+        }
+        
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return names.size();
+    }
+    
+    private static void collect(File dir, String prefix, List<String> names,
+                                List<byte[]> blobs, List<Entry> packed) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        Arrays.sort(files);
+        
+        for (File file : files) {
+            String name = prefix + file.getName();
+            String lower = file.getName().toLowerCase();
+            if (file.isDirectory()) {
+                collect(file, name + "/", names, blobs, packed);
+            } else if (lower.endsWith(".png")) {
+                BufferedImage image = ImageIO.read(file);
+                if (image == null) continue;
+                image = toIntImage(AssetLoader.toCompatibleImage(image));
+                
+                Entry entry = new Entry();
+                entry.kind = KIND_IMAGE;
+                entry.width = image.getWidth();
+                entry.height = image.getHeight();
+                entry.imageType = image.getType();
+                int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                ByteBuffer bytes = ByteBuffer.allocate(pixels.length * 4);
+                bytes.asIntBuffer().put(pixels);
+                entry.length = bytes.capacity();
+                
+                names.add(name);
+                blobs.add(bytes.array());
+                packed.add(entry);
+            } else if (lower.endsWith(".wav")) {
+                try (AudioInputStream audio = AudioSystem.getAudioInputStream(file)) {
+                    ByteArrayOutputStream samples = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = audio.read(buffer)) > 0) {
+                        samples.write(buffer, 0, read);
+                    }
+                    
+                    Entry entry = new Entry();
+                    entry.kind = KIND_SOUND;
+                    entry.format = audio.getFormat();
+                    entry.length = samples.size();
+                    
+                    names.add(name);
+                    blobs.add(samples.toByteArray());
+                    packed.add(entry);
+                } catch (UnsupportedAudioFileException e) {
+                    System.err.println("Skipping unsupported sound " + file + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Pixel blocks are stored as ints, so other image types are converted to ARGB
+     */
+    private static BufferedImage toIntImage(BufferedImage image) {
+        int type = image.getType();
+        boolean intPixels = image.getRaster().getDataBuffer().getDataType() == DataBuffer.TYPE_INT
+            && (type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_ARGB_PRE
+                || type == BufferedImage.TYPE_INT_RGB);
+        if (intPixels) {
+            return image;
+        }
+        
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = converted.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return converted;
+    }
+    
+    private static ByteArrayOutputStream writeIndex(List<String> names, List<Entry> packed,
+                                                    ByteArrayOutputStream buffer) throws IOException {
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            Entry entry = packed.get(i);
+            out.writeUTF(names.get(i));
+            out.writeByte(entry.kind);
+            out.writeLong(entry.offset);
+            out.writeInt(entry.length);
+            if (entry.kind == KIND_IMAGE) {
+                out.writeInt(entry.width);
+                out.writeInt(entry.height);
+                out.writeInt(entry.imageType);
+            } else {
+                AudioFormat format = entry.format;
+                out.writeUTF(format.getEncoding().toString());
+                out.writeFloat(format.getSampleRate());
+                out.writeInt(format.getSampleSizeInBits());
+                out.writeInt(format.getChannels());
+                out.writeInt(format.getFrameSize());
+                out.writeFloat(format.getFrameRate());
+                out.writeBoolean(format.isBigEndian());
+            }
+        }
+        out.flush();
+        return buffer;
+    }
+    
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+    
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        File sourceDir = new File(args.length > 0 ? args[0] : "assets");
+        File packFile = new File(args.length > 1 ? args[1] : DEFAULT_FILE);
+        
+        long start = System.nanoTime();
+        int count = build(sourceDir, packFile);
+        System.out.printf("Packed %d assets from %s into %s (%d KB) in %.0f ms%n",
+            count, sourceDir, packFile, packFile.length() / 1024, (System.nanoTime() - start) / 1e6);
+    }
+}
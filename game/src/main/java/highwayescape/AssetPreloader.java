@@ -0,0 +1,137 @@
+package highwayescape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads every image and sound on a small pool of background threads, so
+ * PNG decoding and audio line setup overlap instead of running one after
+ * another on the event thread. The load only ever runs once; later calls
+ * to start() return the same future.
+ */
+public class AssetPreloader {
+    private static AssetPreloader instance;
+    
+    private final int threads;
+    private final boolean loadSounds;
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile int total;
+    private CompletableFuture<Void> future;
+    private long startNanos;
+    private volatile long elapsedNanos;
+    
+    /**
+     * Constructor for AssetPreloader
+     * @param threads Maximum number of files loaded at the same time
+     * @param loadSounds Whether to open the sound effects and music as well
+     */
+    AssetPreloader(int threads, boolean loadSounds) {
+        this.threads = Math.max(1, threads);
+        this.loadSounds = loadSounds;
+    }
+    
+    public static synchronized AssetPreloader getInstance() {
+        if (instance == null) {
+            instance = new AssetPreloader(Math.min(4, Runtime.getRuntime().availableProcessors() + 1), true);
+        }
+        return instance;
+    }
+    
+    /**
+     * Starts loading, unless that has already happened
+     * @return Completes once every asset has been loaded or has failed to load
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if (future != null) {
+            return future;
+        }
+        
+        startNanos = System.nanoTime();
+        ExecutorService executor = createExecutor();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        
+        String[] images = {
+            AssetLoader.PLAYER_CAR, AssetLoader.ENEMY_CAR, AssetLoader.ROAD_BACKGROUND
+        };
+        for (String path : images) {
+            tasks.add(CompletableFuture.runAsync(() -> AssetLoader.loadImage(path), executor));
+        }
+        
+        // The truck sprite is composed from the cab and trailer once both are in
+        CompletableFuture<Void> cab = CompletableFuture.runAsync(
+            () -> AssetLoader.loadImage(AssetLoader.TRUCK_CAB), executor);
+        CompletableFuture<Void> trailer = CompletableFuture.runAsync(
+            () -> AssetLoader.loadImage(AssetLoader.TRUCK_TRAILER), executor);
+        tasks.add(cab);
+        tasks.add(trailer);
+        tasks.add(cab.thenAcceptBothAsync(trailer, (a, b) -> AssetLoader.loadTruckImage(), executor));
+        
+        if (loadSounds) {
+            tasks.addAll(SoundManager.getInstance().loadSoundsAsync(executor));
+        }
+        
+        total = tasks.size();
+        for (CompletableFuture<Void> task : tasks) {
+            task.whenComplete((result, error) -> {
+                if (error != null) {
+                    System.err.println("Error preloading asset: " + error.getCause());
+                }
+                completed.incrementAndGet();
+            });
+        }
+        
+        future = CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+            // A failed asset falls back to its default, so loading still counts as done
+            .handle((result, error) -> (Void) null)
+            .whenComplete((result, error) -> {
+                elapsedNanos = System.nanoTime() - startNanos;
+                executor.shutdown();
+                if (Main.PRINT_STATS) {
+                    System.out.printf("Preloaded %d assets in %.1f ms%n", total, elapsedNanos / 1e6);
+                }
+            });
+        return future;
+    }
+    
+    /**
+     * Starts loading if needed and waits until it has finished
+     */
+    public void awaitLoaded() {
+        start().join();
+    }
+    
+    private ExecutorService createExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "asset-loader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), factory);
+    }
+    
+    /**
+     * @return Fraction of assets done, between 0 and 1
+     */
+    public double getProgress() {
+        int total = this.total;
+        return total == 0 ? 0 : Math.min(1.0, (double) completed.get() / total);
+    }
+    
+    public synchronized boolean isDone() {
+        return future != null && future.isDone();
+    }
+    
+    // Getters
+    public int getCompleted() { return completed.get(); }
+    public int getTotal() { return total; }
+    public long getElapsedNanos() { return elapsedNanos; }
+}
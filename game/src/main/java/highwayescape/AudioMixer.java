@@ -0,0 +1,521 @@
+package highwayescape;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import javax.sound.sampled.*;
+
+/**
+ * Software mixer that plays every sound effect through one output line.
+ * Samples are decoded once into 16-bit stereo PCM at the mixer's rate and
+ * played by a fixed pool of voices, so the same sound can overlap itself.
+ * When every voice is busy, a new sound takes over the voice with the
+ * lowest priority, oldest first, as long as that priority is not higher
+ * than its own.
+ *
+ * The mix is written to a Sink: a SourceDataLine, a file, or nothing at
+ * all, so the mixer also runs on machines without a sound card.
+ */
+public class AudioMixer {
+    public static final float SAMPLE_RATE = 44100f;
+    public static final int CHANNELS = 2;
+    public static final int BYTES_PER_FRAME = CHANNELS * 2;
+    public static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+    
+    public static final int DEFAULT_VOICES = 16;
+    public static final int BLOCK_FRAMES = 512;
+    
+    // Gains are applied in fixed point, 1.0 = 1 << GAIN_SHIFT
+    private static final int GAIN_SHIFT = 12;
+    private static final float MAX_GAIN = 4f;
+    
+    private final Sink sink;
+    private final Voice[] voices;
+    private final int[] mixBuffer = new int[BLOCK_FRAMES * CHANNELS];
+    private final byte[] outputBuffer = new byte[BLOCK_FRAMES * BYTES_PER_FRAME];
+    private long serial;
+    private long framesMixed;
+    private int steals;
+    private int dropped;
+    private Thread thread;
+    private volatile boolean running;
+    
+    /**
+     * A sound decoded to interleaved 16-bit stereo at the mixer's sample rate
+     */
+    public static final class Sample {
+        private final short[] data;
+        private final int frames;
+        private final int priority;
+        
+        private Sample(short[] data, int priority) {
+            this.data = data;
+            this.frames = data.length / CHANNELS;
+            this.priority = priority;
+        }
+        
+        /**
+         * Decodes a sound file
+         * @param priority Higher priority sounds can take over voices from lower ones
+         */
+        public static Sample load(File file, int priority) throws IOException, UnsupportedAudioFileException {
+            try (AudioInputStream stream = AudioSystem.getAudioInputStream(file)) {
+                return fromStream(stream, priority);
+            }
+        }
+        
+        /**
+         * Decodes raw PCM, such as a sound from the asset pack
+         */
+        public static Sample fromPcm(AudioFormat format, byte[] pcm, int priority) throws IOException {
+            long frames = pcm.length / Math.max(1, format.getFrameSize());
+            return fromStream(new AudioInputStream(new ByteArrayInputStream(pcm), format, frames), priority);
+        }
+        
+        private static Sample fromStream(AudioInputStream stream, int priority) throws IOException {
+            AudioFormat source = stream.getFormat();
+            AudioFormat pcm16 = new AudioFormat(source.getSampleRate(), 16, source.getChannels(), true, false);
+            if (!source.matches(pcm16)) {
+                stream = AudioSystem.getAudioInputStream(pcm16, stream);
+            }
+            
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) > 0) {
+                bytes.write(buffer, 0, read);
+            }
+            byte[] raw = bytes.toByteArray();
+            
+            // Map the channels onto stereo
+            int channels = source.getChannels();
+            int frames = raw.length / (2 * channels);
+            short[] stereo = new short[frames * CHANNELS];
+            for (int frame = 0; frame < frames; frame++) {
+                int base = frame * channels * 2;
+                short left = (short) ((raw[base] & 0xFF) | (raw[base + 1] << 8));
+                short right = left;
+                if (channels > 1) {
+                    right = (short) ((raw[base + 2] & 0xFF) | (raw[base + 3] << 8));
+                }
+                stereo[frame * 2] = left;
+                stereo[frame * 2 + 1] = right;
+            }
+            
+            return new Sample(resample(stereo, source.getSampleRate()), priority);
+        }
+        
+        /**
+         * Linear interpolation to the mixer's rate, done once at load time
+         */
+        private static short[] resample(short[] stereo, float sourceRate) {
+            if (sourceRate == SAMPLE_RATE || sourceRate <= 0) {
+                return stereo;
+            }
+            
+            int sourceFrames = stereo.length / CHANNELS;
+            int frames = (int) ((long) sourceFrames * (long) SAMPLE_RATE / (long) sourceRate);
+            short[] result = new short[frames * CHANNELS];
+            double step = sourceRate / SAMPLE_RATE;
+            for (int frame = 0; frame < frames; frame++) {
+                double position = frame * step;
+                int index = (int) position;
+                int next = Math.min(index + 1, sourceFrames - 1);
+                double fraction = position - index;
+                for (int channel = 0; channel < CHANNELS; channel++) {
+                    int a = stereo[index * CHANNELS + channel];
+                    int b = stereo[next * CHANNELS + channel];
+                    result[frame * CHANNELS + channel] = (short) (a + (b - a) * fraction);
+                }
+            }
+            return result;
+        }
+        
+        // Getters
+        public int getFrames() { return frames; }
+        public int getPriority() { return priority; }
+        public double getSeconds() { return frames / (double) SAMPLE_RATE; }
+    }
+    
+    private static final class Voice {
+        Sample sample;
+        int position;
+        int leftGain;
+        int rightGain;
+        int priority;
+        long serial;
+        boolean loop;
+    }
+    
+    /**
+     * Where mixed blocks go
+     */
+    public interface Sink {
+        /**
+         * Writes one block of audio in the sink's format. Real-time sinks block until
+         * the device has room, which is what paces the mixing thread.
+         */
+        void write(byte[] data, int length) throws IOException;
+        
+        /**
+         * @return Whether write() is paced by an audio device
+         */
+        boolean isRealtime();
+        
+        void close();
+    }
+    
+    /**
+     * Plays through a SourceDataLine
+     */
+    public static final class LineSink implements Sink {
+        private final SourceDataLine line;
+        
+        /**
+         * Constructor for LineSink
+         * @param bufferFrames Size of the line's buffer, which sets the output latency
+         */
+        public LineSink(int bufferFrames) throws LineUnavailableException {
+            this(FORMAT, bufferFrames);
+        }
+        
+        /**
+         * Constructor for LineSink
+         * @param format Format of the data passed to write()
+         * @param bufferFrames Size of the line's buffer, which sets the output latency
+         */
+        public LineSink(AudioFormat format, int bufferFrames) throws LineUnavailableException {
+            line = AudioSystem.getSourceDataLine(format);
+            line.open(format, bufferFrames * format.getFrameSize());
+            line.start();
+        }
+        
+        @Override
+        public void write(byte[] data, int length) {
+            line.write(data, 0, length);
+        }
+        
+        @Override
+        public boolean isRealtime() {
+            return true;
+        }
+        
+        /**
+         * Stops at once, dropping whatever is still in the line's buffer
+         */
+        @Override
+        public void close() {
+            line.stop();
+            line.flush();
+            line.close();
+        }
+    }
+    
+    /**
+     * Discards the mix
+     */
+    public static final class NullSink implements Sink {
+        private long bytesWritten;
+        
+        @Override
+        public void write(byte[] data, int length) {
+            bytesWritten += length;
+        }
+        
+        @Override
+        public boolean isRealtime() {
+            return false;
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        public long getBytesWritten() { return bytesWritten; }
+    }
+    
+    /**
+     * Writes the mix to a WAV file. The header's sizes are filled in on close().
+     */
+    public static final class FileSink implements Sink {
+        private static final int HEADER_BYTES = 44;
+        
+        private final RandomAccessFile file;
+        private long dataBytes;
+        
+        /**
+         * Constructor for FileSink
+         * @param file WAV file to create or overwrite
+         */
+        public FileSink(File file) throws IOException {
+            this.file = new RandomAccessFile(file, "rw");
+            this.file.setLength(0);
+            writeHeader();
+        }
+        
+        @Override
+        public void write(byte[] data, int length) throws IOException {
+            file.write(data, 0, length);
+            dataBytes += length;
+        }
+        
+        @Override
+        public boolean isRealtime() {
+            return false;
+        }
+        
+        @Override
+        public void close() {
+            try {
+                file.seek(0);
+                writeHeader();
+                file.close();
+            } catch (IOException e) {
+                System.err.println("Failed to finish audio file: " + e.getMessage());
+            }
+        }
+        
+        private void writeHeader() throws IOException {
+            file.writeBytes("RIFF");
+            writeIntLE((int) (36 + dataBytes));
+            file.writeBytes("WAVEfmt ");
+            writeIntLE(16);
+            writeShortLE(1); // PCM
+            writeShortLE(CHANNELS);
+            writeIntLE((int) SAMPLE_RATE);
+            writeIntLE((int) SAMPLE_RATE * BYTES_PER_FRAME);
+            writeShortLE(BYTES_PER_FRAME);
+            writeShortLE(16);
+            file.writeBytes("data");
+            writeIntLE((int) dataBytes);
+        }
+        
+        private void writeIntLE(int value) throws IOException {
+            file.writeInt(Integer.reverseBytes(value));
+        }
+        
+        private void writeShortLE(int value) throws IOException {
+            file.writeShort(Short.reverseBytes((short) value));
+        }
+    }
+    
+    /**
+     * Constructor for AudioMixer
+     * @param sink Destination of the mix
+     * @param voiceCount Number of sounds that can play at the same time
+     */
+    public AudioMixer(Sink sink, int voiceCount) {
+        this.sink = sink;
+        this.voices = new Voice[Math.max(1, voiceCount)];
+        for (int i = 0; i < voices.length; i++) {
+            voices[i] = new Voice();
+        }
+    }
+    
+    /**
+     * Plays a sample once at its own priority
+     * @return Whether a voice was free or could be taken over
+     */
+    public boolean play(Sample sample, float gain) {
+        return play(sample, gain, 0f, sample.priority, false);
+    }
+    
+    /**
+     * Plays a sample
+     * @param gain Linear volume, 1 = as recorded
+     * @param pan -1 = left, 0 = centre, 1 = right
+     * @param priority Higher priority sounds can take over voices from lower ones
+     * @param loop Whether to repeat until stopped
+     * @return Whether a voice was free or could be taken over
+     */
+    public synchronized boolean play(Sample sample, float gain, float pan, int priority, boolean loop) {
+        Voice voice = null;
+        Voice victim = null;
+        for (Voice candidate : voices) {
+            if (candidate.sample == null) {
+                voice = candidate;
+                break;
+            }
+            if (victim == null || candidate.priority < victim.priority
+                || (candidate.priority == victim.priority && candidate.serial < victim.serial)) {
+                victim = candidate;
+            }
+        }
+        
+        if (voice == null) {
+            if (victim.priority > priority) {
+                dropped++;
+                return false;
+            }
+            voice = victim;
+            steals++;
+        }
+        
+        float clamped = Math.max(-1f, Math.min(1f, pan));
+        float volume = Math.max(0f, Math.min(MAX_GAIN, gain)) * (1 << GAIN_SHIFT);
+        voice.sample = sample;
+        voice.position = 0;
+        voice.leftGain = (int) (volume * Math.min(1f, 1f - clamped));
+        voice.rightGain = (int) (volume * Math.min(1f, 1f + clamped));
+        voice.priority = priority;
+        voice.serial = ++serial;
+        voice.loop = loop;
+        return true;
+    }
+    
+    /**
+     * Stops every voice playing this sample
+     */
+    public synchronized void stop(Sample sample) {
+        for (Voice voice : voices) {
+            if (voice.sample == sample) {
+                voice.sample = null;
+            }
+        }
+    }
+    
+    public synchronized void stopAll() {
+        for (Voice voice : voices) {
+            voice.sample = null;
+        }
+    }
+    
+    /**
+     * Mixes the next block of every playing voice into outputBuffer
+     */
+    private synchronized void mixBlock() {
+        int[] mix = mixBuffer;
+        Arrays.fill(mix, 0);
+        
+        for (Voice voice : voices) {
+            Sample sample = voice.sample;
+            if (sample == null) continue;
+            
+            short[] data = sample.data;
+            int leftGain = voice.leftGain;
+            int rightGain = voice.rightGain;
+            int position = voice.position;
+            int out = 0;
+            int remaining = BLOCK_FRAMES;
+            while (remaining > 0) {
+                int count = Math.min(remaining, sample.frames - position);
+                int in = position * CHANNELS;
+                for (int i = 0; i < count; i++) {
+                    mix[out++] += (data[in++] * leftGain) >> GAIN_SHIFT;
+                    mix[out++] += (data[in++] * rightGain) >> GAIN_SHIFT;
+                }
+                position += count;
+                remaining -= count;
+                
+                if (position >= sample.frames) {
+                    if (!voice.loop || sample.frames == 0) {
+                        voice.sample = null;
+                        break;
+                    }
+                    position = 0;
+                }
+            }
+            voice.position = position;
+        }
+        
+        byte[] output = outputBuffer;
+        for (int i = 0, b = 0; i < mix.length; i++, b += 2) {
+            int value = mix[i];
+            if (value > Short.MAX_VALUE) value = Short.MAX_VALUE;
+            else if (value < Short.MIN_VALUE) value = Short.MIN_VALUE;
+            output[b] = (byte) value;
+            output[b + 1] = (byte) (value >> 8);
+        }
+        framesMixed += BLOCK_FRAMES;
+    }
+    
+    /**
+     * Mixes and writes audio on the calling thread, without waiting for
+     * real time, e.g. to render to a file or to benchmark the mixer
+     * @param frames Frames to render, rounded up to whole blocks
+     */
+    public void render(int frames) throws IOException {
+        for (int done = 0; done < frames; done += BLOCK_FRAMES) {
+            mixBlock();
+            sink.write(outputBuffer, outputBuffer.length);
+        }
+    }
+    
+    /**
+     * Starts the mixing thread. Sinks that aren't real-time are paced to
+     * the wall clock, so sounds last as long as they would on a device.
+     */
+    public synchronized void start() {
+        if (thread != null) return;
+        
+        running = true;
+        thread = new Thread(this::run, "audio-mixer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+    
+    private void run() {
+        long blockNanos = (long) (BLOCK_FRAMES * 1e9 / SAMPLE_RATE);
+        long next = System.nanoTime();
+        try {
+            while (running) {
+                mixBlock();
+                sink.write(outputBuffer, outputBuffer.length);
+                if (!sink.isRealtime()) {
+                    next += blockNanos;
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Audio output failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Stops the mixing thread and closes the sink
+     */
+    public void close() {
+        Thread mixer;
+        synchronized (this) {
+            running = false;
+            mixer = thread;
+            thread = null;
+        }
+        if (mixer != null) {
+            try {
+                mixer.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sink.close();
+    }
+    
+    /**
+     * @return Number of voices currently playing
+     */
+    public synchronized int getActiveVoices() {
+        int active = 0;
+        for (Voice voice : voices) {
+            if (voice.sample != null) active++;
+        }
+        return active;
+    }
+    
+    // Getters
+    public Sink getSink() { return sink; }
+    public int getVoiceCount() { return voices.length; }
+    public synchronized long getFramesMixed() { return framesMixed; }
+    public synchronized int getSteals() { return steals; }
+    public synchronized int getDropped() { return dropped; }
+}
@@ -0,0 +1,24 @@
+package highwayescape;
+
+/**
+ * Axis-aligned box tests on plain ints, so collision checks in the tick
+ * don't have to allocate Rectangles. Boxes with a non-positive width or
+ * height never intersect anything, the same as Rectangle.intersects().
+ */
+public final class Bounds {
+    private Bounds() {
+    }
+    
+    /**
+     * Checks whether two boxes overlap
+     * @return true if the boxes share at least one pixel
+     */
+    public static boolean intersects(int x1, int y1, int width1, int height1,
+                                     int x2, int y2, int width2, int height2) {
+        if (width1 <= 0 || height1 <= 0 || width2 <= 0 || height2 <= 0) {
+            return false;
+        }
+        return x1 < x2 + width2 && x2 < x1 + width1
+            && y1 < y2 + height2 && y2 < y1 + height1;
+    }
+}
@@ -0,0 +1,404 @@
+package highwayescape;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * Plays thousands of headless games with a scripted driver for every
+ * combination in a grid of difficulty rules and reports the score and
+ * level distributions of each. Games are split into batches that run on
+ * a thread per core and share nothing but the sprite cache, so it scales
+ * with the number of cores.
+ *
+ * Usage: java -cp game/target/classes highwayescape.DifficultySweep [key=value,...]...
+ * Keys: spawn, step, min, truck, powerup (lists of values to sweep),
+ * games (per combination), threads (a list runs the sweep once per count),
+ * seed, csv (file to write the results to)
+ */
+public class DifficultySweep {
+    // Games still going after 20 minutes of game time are stopped there
+    public static final int MAX_TICKS_PER_GAME = 20 * 60 * GameLoop.TICKS_PER_SECOND;
+    private static final int BATCH_GAMES = 50;
+    private static final int MAX_LEVEL_COLUMNS = 8;
+    
+    private final int threads;
+    private final long baseSeed;
+    private final Supplier<Driver> drivers;
+    
+    /**
+     * Decides the input for the next tick
+     */
+    public interface Driver {
+        int input(GameWorld world);
+    }
+    
+    /**
+     * Steers away from the nearest obstacle coming down in the player's
+     * path and otherwise drifts back to the middle of the road
+     */
+    public static class DodgeDriver implements Driver {
+        private static final int LOOKAHEAD = 220;
+        private static final int MARGIN = 12;
+        private static final int ROAD_LEFT = 50;
+        private static final int ROAD_RIGHT = GameWorld.WIDTH - 50;
+        
+        @Override
+        public int input(GameWorld world) {
+            PlayerCar player = world.getPlayer();
+            int playerX = player.getX(), playerY = player.getY(), playerWidth = player.getWidth();
+            
+            boolean threat = false;
+            int threatX = 0, threatY = 0, threatWidth = 0;
+            List<EntityStore.Archetype> kinds = world.getObstacleKinds();
+            for (int k = 0; k < kinds.size(); k++) {
+                EntityStore.Archetype kind = kinds.get(k);
+                for (int i = 0; i < kind.getCount(); i++) {
+                    int x = kind.getX(i), y = kind.getY(i);
+                    if (y + kind.getHeight() < playerY - LOOKAHEAD || y > playerY + player.getHeight()) continue;
+                    if (x + kind.getWidth() + MARGIN <= playerX || x >= playerX + playerWidth + MARGIN) continue;
+                    if (!threat || y > threatY) {
+                        threat = true;
+                        threatX = x;
+                        threatY = y;
+                        threatWidth = kind.getWidth();
+                    }
+                }
+            }
+            
+            int playerCentre = playerX + playerWidth / 2;
+            if (!threat) {
+                int offset = playerCentre - GameWorld.WIDTH / 2;
+                if (Math.abs(offset) <= GameWorld.PLAYER_SPEED) return 0;
+                return offset > 0 ? GameWorld.INPUT_LEFT : GameWorld.INPUT_RIGHT;
+            }
+            
+            // Pass on the side with more room, unless that side is the edge of the road
+            boolean left = playerCentre < threatX + threatWidth / 2;
+            if (left && playerX - GameWorld.PLAYER_SPEED < ROAD_LEFT) {
+                left = false;
+            } else if (!left && playerX + playerWidth + GameWorld.PLAYER_SPEED > ROAD_RIGHT) {
+                left = true;
+            }
+            return left ? GameWorld.INPUT_LEFT : GameWorld.INPUT_RIGHT;
+        }
+    }
+    
+    /**
+     * Score and level distribution of every game played under one set of rules
+     */
+    public static final class Result {
+        private final GameRules rules;
+        private final int[] scores;
+        private final int[] levelCounts;
+        private final long ticks;
+        private final int timedOut;
+        
+        Result(GameRules rules, int[] scores, int[] levelCounts, long ticks, int timedOut) {
+            this.rules = rules;
+            this.scores = scores;
+            this.levelCounts = levelCounts;
+            this.ticks = ticks;
+            this.timedOut = timedOut;
+        }
+        
+        /**
+         * @param percent 0..100
+         * @return The score that percent of the games stayed at or below
+         */
+        public int percentile(double percent) {
+            if (scores.length == 0) return 0;
+            int index = (int) Math.ceil(percent / 100.0 * scores.length) - 1;
+            return scores[Math.max(0, Math.min(scores.length - 1, index))];
+        }
+        
+        public double getMeanScore() {
+            long total = 0;
+            for (int score : scores) {
+                total += score;
+            }
+            return scores.length == 0 ? 0 : (double) total / scores.length;
+        }
+        
+        public double getMeanLevel() {
+            long total = 0;
+            for (int level = 0; level < levelCounts.length; level++) {
+                total += (long) level * levelCounts[level];
+            }
+            return scores.length == 0 ? 0 : (double) total / scores.length;
+        }
+        
+        /**
+         * @return Fraction of the games that ended at a level
+         */
+        public double getLevelShare(int level) {
+            return level < levelCounts.length && scores.length > 0 ? (double) levelCounts[level] / scores.length : 0;
+        }
+        
+        // Getters
+        public GameRules getRules() { return rules; }
+        public int getGames() { return scores.length; }
+        public int getMaxLevel() { return levelCounts.length - 1; }
+        public long getTicks() { return ticks; }
+        public int getTimedOut() { return timedOut; }
+    }
+    
+    /**
+     * The games of one batch, played on one thread
+     */
+    private static final class Batch {
+        final int[] scores;
+        final int[] levels;
+        long ticks;
+        int timedOut;
+        
+        Batch(int games) {
+            scores = new int[games];
+            levels = new int[games];
+        }
+    }
+    
+    /**
+     * Constructor for DifficultySweep
+     * @param threads Number of games played at once
+     * @param baseSeed Seed of the first game; every set of rules plays the same seeds
+     * @param drivers Makes a driver for each batch, so drivers may keep state
+     */
+    public DifficultySweep(int threads, long baseSeed, Supplier<Driver> drivers) {
+        this.threads = Math.max(1, threads);
+        this.baseSeed = baseSeed;
+        this.drivers = drivers;
+    }
+    
+    /**
+     * Plays the same games under every set of rules
+     * @return One result per set of rules, in the same order
+     */
+    public List<Result> run(List<GameRules> grid, int gamesPerRules) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int next;
+            
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "sweep-" + next++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        
+        try {
+            List<List<Future<Batch>>> futures = new ArrayList<>();
+            for (GameRules rules : grid) {
+                List<Future<Batch>> batches = new ArrayList<>();
+                for (int first = 0; first < gamesPerRules; first += BATCH_GAMES) {
+                    long firstSeed = baseSeed + first;
+                    int games = Math.min(BATCH_GAMES, gamesPerRules - first);
+                    batches.add(executor.submit(() -> playBatch(rules, firstSeed, games, drivers.get())));
+                }
+                futures.add(batches);
+            }
+            
+            List<Result> results = new ArrayList<>();
+            for (int i = 0; i < grid.size(); i++) {
+                results.add(merge(grid.get(i), futures.get(i), gamesPerRules));
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulated game failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static Batch playBatch(GameRules rules, long firstSeed, int games, Driver driver) {
+        Batch batch = new Batch(games);
+        for (int i = 0; i < games; i++) {
+            GameWorld world = new GameWorld(firstSeed + i, null, rules);
+            while (true) {
+                if (world.getTicks() >= MAX_TICKS_PER_GAME) {
+                    batch.timedOut++;
+                    break;
+                }
+                world.setInput(driver.input(world));
+                if (!world.tick()) break;
+            }
+            batch.scores[i] = (int) world.getScore();
+            batch.levels[i] = world.getDifficulty();
+            batch.ticks += world.getTicks();
+        }
+        return batch;
+    }
+    
+    private static Result merge(GameRules rules, List<Future<Batch>> batches, int games)
+            throws InterruptedException, ExecutionException {
+        int[] scores = new int[games];
+        int[] levelCounts = new int[2];
+        long ticks = 0;
+        int timedOut = 0;
+        int filled = 0;
+        
+        for (Future<Batch> future : batches) {
+            Batch batch = future.get();
+            System.arraycopy(batch.scores, 0, scores, filled, batch.scores.length);
+            filled += batch.scores.length;
+            for (int level : batch.levels) {
+                if (level >= levelCounts.length) {
+                    levelCounts = Arrays.copyOf(levelCounts, level + 1);
+                }
+                levelCounts[level]++;
+            }
+            ticks += batch.ticks;
+            timedOut += batch.timedOut;
+        }
+        Arrays.sort(scores);
+        return new Result(rules, scores, levelCounts, ticks, timedOut);
+    }
+    
+    /**
+     * Every combination of the given values
+     */
+    public static List<GameRules> grid(int[] spawnIntervals, int[] steps, int[] minIntervals,
+                                       double[] truckProbabilities, int[] powerUpIntervals) {
+        List<GameRules> grid = new ArrayList<>();
+        for (int spawn : spawnIntervals) {
+            for (int step : steps) {
+                for (int min : minIntervals) {
+                    for (double truck : truckProbabilities) {
+                        for (int powerUp : powerUpIntervals) {
+                            grid.add(new GameRules(spawn, step, min, truck, powerUp));
+                        }
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+    
+    public static void main(String[] args) throws InterruptedException, IOException {
+        System.setProperty("java.awt.headless", "true");
+        Main.prepareAssets();
+        
+        GameRules defaults = GameRules.DEFAULT;
+        int[] spawn = { defaults.getObstacleSpawnInterval() };
+        int[] step = { defaults.getSpawnIntervalStep() };
+        int[] min = { defaults.getMinSpawnInterval() };
+        double[] truck = { defaults.getTruckProbability() };
+        int[] powerUp = { defaults.getPowerUpSpawnInterval() };
+        int games = 2000;
+        int[] threadCounts = { Runtime.getRuntime().availableProcessors() };
+        long seed = 1;
+        String csv = null;
+        
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected key=value: " + arg);
+            }
+            String key = arg.substring(0, equals);
+            String value = arg.substring(equals + 1);
+            switch (key) {
+                case "spawn": spawn = parseInts(value); break;
+                case "step": step = parseInts(value); break;
+                case "min": min = parseInts(value); break;
+                case "truck": truck = Arrays.stream(value.split(",")).mapToDouble(Double::parseDouble).toArray(); break;
+                case "powerup": powerUp = parseInts(value); break;
+                case "games": games = Integer.parseInt(value); break;
+                case "threads": threadCounts = parseInts(value); break;
+                case "seed": seed = Long.parseLong(value); break;
+                case "csv": csv = value; break;
+                default: throw new IllegalArgumentException("Unknown key: " + key);
+            }
+        }
+        
+        List<GameRules> grid = grid(spawn, step, min, truck, powerUp);
+        
+        // A short untimed run, so the first thread count isn't timed with a cold JIT
+        new DifficultySweep(threadCounts[0], seed, DodgeDriver::new).run(grid.subList(0, 1), games);
+        
+        double firstRate = 0;
+        List<Result> results = null;
+        for (int threads : threadCounts) {
+            DifficultySweep sweep = new DifficultySweep(threads, seed, DodgeDriver::new);
+            long start = System.nanoTime();
+            results = sweep.run(grid, games);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            
+            long totalTicks = 0;
+            for (Result result : results) {
+                totalTicks += result.getTicks();
+            }
+            double rate = grid.size() * games / seconds;
+            if (firstRate == 0) firstRate = rate;
+            System.out.printf("Played %d games (%d ticks) on %d threads in %.2f s: %.0f games/s, %.0f ticks/s, %.2fx%n",
+                grid.size() * games, totalTicks, threads, seconds, rate, totalTicks / seconds, rate / firstRate);
+        }
+        
+        System.out.println();
+        for (Result result : results) {
+            System.out.println(format(result));
+        }
+        if (csv != null) {
+            writeCsv(results, new File(csv));
+            System.out.println("Wrote " + csv);
+        }
+    }
+    
+    private static int[] parseInts(String value) {
+        return Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+    
+    private static String format(Result result) {
+        StringBuilder line = new StringBuilder(String.format(
+            "%s | mean %.0f p10 %d p50 %d p90 %d p99 %d | level mean %.2f max %d |",
+            result.getRules(), result.getMeanScore(), result.percentile(10), result.percentile(50),
+            result.percentile(90), result.percentile(99), result.getMeanLevel(), result.getMaxLevel()));
+        for (int level = 1; level <= Math.min(result.getMaxLevel(), MAX_LEVEL_COLUMNS); level++) {
+            line.append(String.format(" L%d %.0f%%", level, result.getLevelShare(level) * 100));
+        }
+        if (result.getTimedOut() > 0) {
+            line.append(" | ").append(result.getTimedOut()).append(" timed out");
+        }
+        return line.toString();
+    }
+    
+    private static void writeCsv(List<Result> results, File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            StringBuilder header = new StringBuilder("spawn,step,min,truck,powerup,games,timed_out,mean,p10,p50,p90,p99,mean_level");
+            for (int level = 1; level <= MAX_LEVEL_COLUMNS; level++) {
+                header.append(",level_").append(level);
+            }
+            out.println(header);
+            
+            for (Result result : results) {
+                GameRules rules = result.getRules();
+                // Locale.ROOT, or a decimal comma would split a number across two columns
+                StringBuilder line = new StringBuilder();
+                line.append(rules.getObstacleSpawnInterval()).append(',').append(rules.getSpawnIntervalStep())
+                    .append(',').append(rules.getMinSpawnInterval()).append(',').append(rules.getTruckProbability())
+                    .append(',').append(rules.getPowerUpSpawnInterval()).append(',').append(result.getGames())
+                    .append(',').append(result.getTimedOut()).append(',').append(String.format(Locale.ROOT, "%.1f", result.getMeanScore()))
+                    .append(',').append(result.percentile(10)).append(',').append(result.percentile(50))
+                    .append(',').append(result.percentile(90)).append(',').append(result.percentile(99))
+                    .append(',').append(String.format(Locale.ROOT, "%.3f", result.getMeanLevel()));
+                for (int level = 1; level <= MAX_LEVEL_COLUMNS; level++) {
+                    line.append(',').append(String.format(Locale.ROOT, "%.4f", result.getLevelShare(level)));
+                }
+                out.println(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package highwayescape;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Data-oriented store for road entities. Everything that differs between
+ * kinds of entity (sprite, collider boxes, how it expires, whether it
+ * bobs) lives once in an Archetype; the per-entity state (position,
+ * velocity, previous position for interpolation, spawn time) lives in
+ * packed parallel arrays inside the archetype. Movement, expiry,
+ * collision and rendering are each one loop over those arrays, with no
+ * per-entity branching on type and no objects per entity.
+ *
+ * Each archetype keeps its entities in a SpatialGrid, so collision only
+ * tests the ones near the box. A new kind of vehicle is a new Archetype,
+ * not another branch. Like ParticleSystem, removal moves the last entity
+ * into the gap, so order is not kept. Not thread-safe.
+ */
+public class EntityStore {
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private final List<Archetype> archetypes = new ArrayList<>();
+    private final List<Archetype> archetypesView = Collections.unmodifiableList(archetypes);
+    
+    /**
+     * An entity's handle in its archetype's grid; index follows the entity when it is moved
+     */
+    private static final class Slot {
+        int index;
+        SpatialGrid.Entry<Slot> gridEntry;
+    }
+    
+    /**
+     * One kind of entity and the packed state of every entity of that kind
+     */
+    public static final class Archetype {
+        private final String name;
+        private final BufferedImage sprite;
+        private final int spriteOffsetX, spriteOffsetY;
+        private final int width, height;
+        // Collider boxes as (x, y, width, height) relative to the entity
+        private final int[] colliders;
+        // An entity expires once y + expiryOffset passes expiryY
+        private final int expiryOffset;
+        private final int expiryY;
+        private final boolean bobbing;
+        private final PowerUp.PowerUpType powerUpType;
+        
+        // Components, index i across all arrays is one entity
+        private int[] x = new int[INITIAL_CAPACITY];
+        private int[] y = new int[INITIAL_CAPACITY];
+        private int[] prevY = new int[INITIAL_CAPACITY];
+        private int[] vx = new int[INITIAL_CAPACITY];
+        private int[] vy = new int[INITIAL_CAPACITY];
+        private long[] spawnTime = new long[INITIAL_CAPACITY];
+        private int count;
+        private int highWater;
+        
+        // Collision broad phase; slots past count are kept for reuse
+        private final SpatialGrid<Slot> grid = new SpatialGrid<>();
+        private Slot[] slots = new Slot[INITIAL_CAPACITY];
+        private final List<Slot> candidates = new ArrayList<>();
+        
+        /**
+         * Constructor for Archetype
+         * @param name Name for statistics
+         * @param sprite Image drawn for each entity
+         * @param spriteOffsetX Where the sprite is drawn relative to the entity
+         * @param spriteOffsetY Where the sprite is drawn relative to the entity
+         * @param width Width of the entity, for spawn spacing and the broad phase
+         * @param height Height of the entity, for spawn spacing and the broad phase
+         * @param colliders Collider boxes as (x, y, width, height) relative to the entity
+         * @param expiryOffset Point of the entity, below its y, that decides when it leaves the road
+         * @param expiryY The entity expires once that point is below this y
+         * @param bobbing Whether it bobs up and down like a power-up
+         * @param powerUpType What collecting it gives, or null for an obstacle
+         */
+        public Archetype(String name, BufferedImage sprite, int spriteOffsetX, int spriteOffsetY,
+                         int width, int height, int[] colliders, int expiryOffset, int expiryY,
+                         boolean bobbing, PowerUp.PowerUpType powerUpType) {
+            if (colliders.length % 4 != 0) {
+                throw new IllegalArgumentException("Colliders come in fours: x, y, width, height");
+            }
+            this.name = name;
+            this.sprite = sprite;
+            this.spriteOffsetX = spriteOffsetX;
+            this.spriteOffsetY = spriteOffsetY;
+            this.width = width;
+            this.height = height;
+            this.colliders = colliders.clone();
+            this.expiryOffset = expiryOffset;
+            this.expiryY = expiryY;
+            this.bobbing = bobbing;
+            this.powerUpType = powerUpType;
+        }
+        
+        /**
+         * A car, leaving the road once its top is below the play field
+         */
+        public static Archetype car() {
+            BufferedImage sprite = AssetLoader.loadImage(AssetLoader.ENEMY_CAR);
+            int width = sprite.getWidth(), height = sprite.getHeight();
+            return new Archetype("car", sprite, 0, 0, width, height, new int[] { 0, 0, width, height },
+                0, GameWorld.HEIGHT, false, null);
+        }
+        
+        /**
+         * A truck with separate cab and trailer colliders, leaving the road
+         * once the top of its trailer is below the play field
+         */
+        public static Archetype truck() {
+            BufferedImage cab = AssetLoader.loadImage(AssetLoader.TRUCK_CAB);
+            BufferedImage trailer = AssetLoader.loadImage(AssetLoader.TRUCK_TRAILER);
+            int trailerY = cab.getHeight() - AssetLoader.TRAILER_OVERLAP;
+            int[] colliders = {
+                0, 0, cab.getWidth(), cab.getHeight(),
+                0, trailerY, trailer.getWidth(), trailer.getHeight()
+            };
+            return new Archetype("truck", AssetLoader.loadTruckImage(), 0, 0,
+                Math.max(cab.getWidth(), trailer.getWidth()), trailerY + trailer.getHeight(),
+                colliders, trailerY, GameWorld.HEIGHT, false, null);
+        }
+        
+        /**
+         * A bobbing power-up drawn with its cached sprite, leaving the road below y 800
+         */
+        public static Archetype powerUp(PowerUp.PowerUpType type) {
+            int size = PowerUp.SIZE;
+            return new Archetype("power-up " + type.getName(), PowerUp.getSprite(type), -PowerUp.GLOW, -PowerUp.GLOW,
+                size, size, new int[] { 0, 0, size, size }, 0, 800, true, type);
+        }
+        
+        private void grow() {
+            int capacity = x.length * 2;
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            prevY = Arrays.copyOf(prevY, capacity);
+            vx = Arrays.copyOf(vx, capacity);
+            vy = Arrays.copyOf(vy, capacity);
+            spawnTime = Arrays.copyOf(spawnTime, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+        }
+        
+        private void remove(int index) {
+            int last = --count;
+            Slot removed = slots[index];
+            grid.remove(removed.gridEntry);
+            
+            // The removed slot goes to the end for reuse, the last entity's slot into the gap
+            slots[index] = slots[last];
+            slots[index].index = index;
+            slots[last] = removed;
+            removed.index = last;
+            
+            x[index] = x[last];
+            y[index] = y[last];
+            prevY[index] = prevY[last];
+            vx[index] = vx[last];
+            vy[index] = vy[last];
+            spawnTime[index] = spawnTime[last];
+        }
+        
+        private boolean intersects(int index, int boxX, int boxY, int boxWidth, int boxHeight) {
+            for (int c = 0; c < colliders.length; c += 4) {
+                if (Bounds.intersects(x[index] + colliders[c], y[index] + colliders[c + 1],
+                        colliders[c + 2], colliders[c + 3], boxX, boxY, boxWidth, boxHeight)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s %d, high water %d", name, count, highWater);
+        }
+        
+        // Getters
+        public String getName() { return name; }
+        public int getCount() { return count; }
+        public int getHighWater() { return highWater; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public PowerUp.PowerUpType getPowerUpType() { return powerUpType; }
+        public int getX(int index) { return x[index]; }
+        public int getY(int index) { return y[index]; }
+    }
+    
+    /**
+     * Told about each entity the collision pass hits, before it is removed
+     */
+    public interface HitListener {
+        /**
+         * @param index Index of the entity in its archetype
+         * @return false to stop the pass after removing this entity
+         */
+        boolean onHit(Archetype archetype, int index);
+    }
+    
+    /**
+     * Adds a kind of entity to the store
+     * @return The archetype, for spawning
+     */
+    public Archetype register(Archetype archetype) {
+        archetypes.add(archetype);
+        return archetype;
+    }
+    
+    /**
+     * Adds an entity
+     * @param vx Pixels moved right per tick
+     * @param vy Pixels moved down per tick
+     * @param time Clock time of the spawn, drives bobbing
+     */
+    public void spawn(Archetype archetype, int x, int y, int vx, int vy, long time) {
+        if (archetype.count == archetype.x.length) {
+            archetype.grow();
+        }
+        int i = archetype.count++;
+        archetype.highWater = Math.max(archetype.highWater, archetype.count);
+        archetype.x[i] = x;
+        archetype.y[i] = y;
+        archetype.prevY[i] = y;
+        archetype.vx[i] = vx;
+        archetype.vy[i] = vy;
+        archetype.spawnTime[i] = time;
+        
+        Slot slot = archetype.slots[i];
+        if (slot == null) {
+            slot = new Slot();
+            slot.index = i;
+            slot.gridEntry = archetype.grid.insert(slot, x, y, archetype.width, archetype.height);
+            archetype.slots[i] = slot;
+        } else {
+            archetype.grid.reinsert(slot.gridEntry, x, y, archetype.width, archetype.height);
+        }
+    }
+    
+    /**
+     * Movement system for every archetype
+     * @param time Current clock time
+     */
+    public void move(long time) {
+        for (int a = 0; a < archetypes.size(); a++) {
+            move(archetypes.get(a), time);
+        }
+    }
+    
+    /**
+     * Movement system: applies velocity, and the bob of bobbing archetypes
+     * @param time Current clock time
+     */
+    public void move(Archetype archetype, long time) {
+        int[] x = archetype.x, y = archetype.y, prevY = archetype.prevY;
+        int[] vx = archetype.vx, vy = archetype.vy;
+        int count = archetype.count;
+        for (int i = 0; i < count; i++) {
+            prevY[i] = y[i];
+            x[i] += vx[i];
+            y[i] += vy[i];
+        }
+        
+        if (archetype.bobbing) {
+            long[] spawnTime = archetype.spawnTime;
+            for (int i = 0; i < count; i++) {
+                // StrictMath gives the same result on every JVM, which replays rely on
+                double t = (time - spawnTime[i]) / 1000.0;
+                y[i] += (int) (StrictMath.sin(t * 3) * 5);
+            }
+        }
+        
+        // The grid only touches its cells when an entity crosses into another row
+        SpatialGrid<Slot> grid = archetype.grid;
+        Slot[] slots = archetype.slots;
+        for (int i = 0; i < count; i++) {
+            grid.update(slots[i].gridEntry, x[i], y[i], archetype.width, archetype.height);
+        }
+    }
+    
+    /**
+     * Expiry system for every archetype
+     * @return Number removed
+     */
+    public int expire() {
+        int removed = 0;
+        for (int a = 0; a < archetypes.size(); a++) {
+            removed += expire(archetypes.get(a));
+        }
+        return removed;
+    }
+    
+    /**
+     * Expiry system: removes entities that have left the road
+     * @return Number removed
+     */
+    public int expire(Archetype archetype) {
+        int removed = 0;
+        int[] y = archetype.y;
+        int limit = archetype.expiryY - archetype.expiryOffset;
+        for (int i = 0; i < archetype.count; ) {
+            if (y[i] > limit) {
+                archetype.remove(i);
+                removed++;
+            } else {
+                i++;
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * Collision system for every archetype, in the order they were registered
+     * @param listener Told about each hit, or null
+     * @return Number of entities hit
+     */
+    public int collide(int boxX, int boxY, int boxWidth, int boxHeight, HitListener listener) {
+        int hits = 0;
+        for (int a = 0; a < archetypes.size(); a++) {
+            Archetype archetype = archetypes.get(a);
+            int before = archetype.count;
+            if (!collide(archetype, boxX, boxY, boxWidth, boxHeight, listener)) {
+                return hits + before - archetype.count;
+            }
+            hits += before - archetype.count;
+        }
+        return hits;
+    }
+    
+    /**
+     * Collision system: removes every entity of an archetype overlapping a box.
+     * Only entities sharing a grid cell with the box reach the exact test.
+     * @param listener Told about each hit, or null
+     * @return false if the listener stopped the pass
+     */
+    public boolean collide(Archetype archetype, int boxX, int boxY, int boxWidth, int boxHeight,
+                           HitListener listener) {
+        // Most kinds are absent most of the time; skip the grid query for them
+        if (archetype.count == 0) {
+            return true;
+        }
+        List<Slot> candidates = archetype.candidates;
+        candidates.clear();
+        archetype.grid.query(boxX, boxY, boxWidth, boxHeight, candidates);
+        
+        for (int c = 0; c < candidates.size(); c++) {
+            // Read the index now, earlier hits may have moved this entity
+            int i = candidates.get(c).index;
+            if (archetype.intersects(i, boxX, boxY, boxWidth, boxHeight)) {
+                boolean carryOn = listener == null || listener.onHit(archetype, i);
+                archetype.remove(i);
+                if (!carryOn) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Render system for every archetype
+     * @param alpha Fraction of a tick since the last move, 0..1
+     */
+    public void render(Graphics2D g2d, double alpha) {
+        for (int a = 0; a < archetypes.size(); a++) {
+            render(g2d, archetypes.get(a), alpha);
+        }
+    }
+    
+    /**
+     * Render system: draws every entity of an archetype, interpolated
+     * between its previous and current position
+     * @param alpha Fraction of a tick since the last move, 0..1
+     */
+    public void render(Graphics2D g2d, Archetype archetype, double alpha) {
+        BufferedImage sprite = archetype.sprite;
+        int[] x = archetype.x, y = archetype.y, prevY = archetype.prevY;
+        for (int i = 0; i < archetype.count; i++) {
+            int offset = (int) Math.round((prevY[i] - y[i]) * (1 - alpha));
+            g2d.drawImage(sprite, x[i] + archetype.spriteOffsetX, y[i] + offset + archetype.spriteOffsetY, null);
+        }
+    }
+    
+    public void clear() {
+        for (int a = 0; a < archetypes.size(); a++) {
+            Archetype archetype = archetypes.get(a);
+            archetype.count = 0;
+            archetype.grid.clear();
+        }
+    }
+    
+    /**
+     * @return Number of entities across all archetypes
+     */
+    public int size() {
+        int size = 0;
+        for (int a = 0; a < archetypes.size(); a++) {
+            size += archetypes.get(a).count;
+        }
+        return size;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int a = 0; a < archetypes.size(); a++) {
+            if (a > 0) sb.append("; ");
+            sb.append(archetypes.get(a));
+        }
+        return sb.toString();
+    }
+    
+    public List<Archetype> getArchetypes() {
+        return archetypesView;
+    }
+}
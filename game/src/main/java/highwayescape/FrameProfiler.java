@@ -0,0 +1,368 @@
+package highwayescape;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Times the phases of each frame, update and drawing alike, into
+ * histograms and keeps a history of recent frames for CSV export.
+ * While disabled every hook is a single branch, and no histogram or
+ * history memory is allocated until the profiler is first enabled.
+ *
+ * Phases are timed with start()/lap() pairs:
+ *     long t = profiler.start();
+ *     updateObstacles(currentTime);
+ *     t = profiler.lap(FrameProfiler.Phase.OBSTACLES, t);
+ */
+public class FrameProfiler {
+    public static final int DEFAULT_HISTORY_FRAMES = 3600;
+    
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 170);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    
+    /**
+     * Parts of a frame that are timed separately
+     */
+    public enum Phase {
+        DIFFICULTY("difficulty"),
+        SPAWN("spawn"),
+        PLAYER("player"),
+        OBSTACLES("obstacles"),
+        POWER_UPS("power-ups"),
+        PARTICLES("particles"),
+        BACKGROUND("background"),
+        DRAW_BACKGROUND("draw road"),
+        DRAW_PARTICLES("draw particles"),
+        DRAW_OBSTACLES("draw obstacles"),
+        DRAW_POWER_UPS("draw power-ups"),
+        DRAW_PLAYER("draw player"),
+        DRAW_HUD("draw hud");
+        
+        private final String label;
+        
+        Phase(String label) {
+            this.label = label;
+        }
+        
+        public String getLabel() { return label; }
+    }
+    
+    private static final Phase[] PHASES = Phase.values();
+    
+    // Columns of a history row after the per-phase times
+    private static final int COLUMN_FRAME = 0;
+    private static final int COLUMN_TOTAL = 1;
+    private static final int COLUMN_PHASES = 2;
+    private static final int COLUMN_OBSTACLES = COLUMN_PHASES + PHASES.length;
+    private static final int COLUMN_POWER_UPS = COLUMN_OBSTACLES + 1;
+    private static final int COLUMN_PARTICLES = COLUMN_POWER_UPS + 1;
+    private static final int COLUMN_ALLOCATED = COLUMN_PARTICLES + 1;
+    private static final int COLUMNS = COLUMN_ALLOCATED + 1;
+    
+    private final int historyFrames;
+    private boolean enabled;
+    
+    // Allocated on first enable
+    private Histogram[] phaseHistograms;
+    private Histogram frameHistogram;
+    private long[][] history;
+    
+    // Frame in progress
+    private final long[] current = new long[PHASES.length];
+    private boolean inFrame;
+    private long frameStart;
+    private long allocatedAtStart;
+    
+    private long frames;
+    private int historyCount;
+    private int lastObstacles, lastPowerUps, lastParticles;
+    private long lastAllocated;
+    private double allocationRate; // Bytes per second, smoothed
+    private long lastFrameStart;
+    
+    /**
+     * Low-overhead histogram of nanosecond durations. Values below 64 are
+     * counted exactly; above that each power of two is split into 32
+     * buckets, so percentiles are within about 3% of the true value.
+     */
+    public static final class Histogram {
+        private static final int SUB_BUCKETS = 32;
+        private static final int MAX_SHIFT = 36;
+        private static final int BUCKETS = 2 * SUB_BUCKETS + MAX_SHIFT * SUB_BUCKETS;
+        
+        private final long[] counts = new long[BUCKETS];
+        private long count;
+        private long total;
+        private long max;
+        
+        public void record(long value) {
+            if (value < 0) value = 0;
+            counts[bucket(value)]++;
+            count++;
+            total += value;
+            if (value > max) max = value;
+        }
+        
+        /**
+         * @param percentile Between 0 and 100
+         * @return Upper bound of the bucket holding the percentile, capped at the maximum
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) return 0;
+            
+            long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(max, upperBound(i));
+                }
+            }
+            return max;
+        }
+        
+        public void reset() {
+            Arrays.fill(counts, 0);
+            count = 0;
+            total = 0;
+            max = 0;
+        }
+        
+        private static int bucket(long value) {
+            if (value < 2 * SUB_BUCKETS) return (int) value;
+            
+            int shift = Math.min(MAX_SHIFT, 63 - Long.numberOfLeadingZeros(value) - 5);
+            long sub = Math.min(2 * SUB_BUCKETS - 1, value >>> shift);
+            return 2 * SUB_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) (sub - SUB_BUCKETS);
+        }
+        
+        private static long upperBound(int bucket) {
+            if (bucket < 2 * SUB_BUCKETS) return bucket;
+            
+            int shift = (bucket - 2 * SUB_BUCKETS) / SUB_BUCKETS + 1;
+            long sub = (bucket - 2 * SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+            return ((sub + 1) << shift) - 1;
+        }
+        
+        // Getters
+        public long getCount() { return count; }
+        public long getMax() { return max; }
+        public double getMean() { return count == 0 ? 0 : (double) total / count; }
+    }
+    
+    /**
+     * Constructor for FrameProfiler
+     */
+    public FrameProfiler() {
+        this(DEFAULT_HISTORY_FRAMES);
+    }
+    
+    /**
+     * Constructor for FrameProfiler
+     * @param historyFrames Number of most recent frames kept for CSV export
+     */
+    public FrameProfiler(int historyFrames) {
+        this.historyFrames = historyFrames;
+    }
+    
+    /**
+     * Turns recording on or off. Turning it on starts a fresh session.
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled && !this.enabled) {
+            reset();
+        }
+        this.enabled = enabled;
+        inFrame = false;
+    }
+    
+    /**
+     * Clears all histograms and history
+     */
+    public void reset() {
+        if (phaseHistograms == null) {
+            phaseHistograms = new Histogram[PHASES.length];
+            for (int i = 0; i < PHASES.length; i++) {
+                phaseHistograms[i] = new Histogram();
+            }
+            frameHistogram = new Histogram();
+            history = new long[historyFrames][COLUMNS];
+        }
+        for (Histogram histogram : phaseHistograms) {
+            histogram.reset();
+        }
+        frameHistogram.reset();
+        frames = 0;
+        historyCount = 0;
+        allocationRate = 0;
+        lastFrameStart = 0;
+    }
+    
+    /**
+     * @return Timestamp to pass to lap(), or 0 while disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+    
+    /**
+     * Adds the time since the given timestamp to a phase of the current frame
+     * @return Timestamp for timing the next phase
+     */
+    public long lap(Phase phase, long since) {
+        if (!enabled) return 0;
+        long now = System.nanoTime();
+        current[phase.ordinal()] += now - since;
+        return now;
+    }
+    
+    public void beginFrame() {
+        if (!enabled) return;
+        
+        Arrays.fill(current, 0);
+        frameStart = System.nanoTime();
+        allocatedAtStart = allocatedBytes();
+        inFrame = true;
+    }
+    
+    /**
+     * Records the frame started by beginFrame()
+     * @param obstacles Live obstacles at the end of the frame
+     * @param powerUps Live power-ups at the end of the frame
+     * @param particles Live particles at the end of the frame
+     */
+    public void endFrame(int obstacles, int powerUps, int particles) {
+        if (!enabled || !inFrame) return;
+        inFrame = false;
+        
+        long total = System.nanoTime() - frameStart;
+        long allocated = allocatedAtStart < 0 ? -1 : allocatedBytes() - allocatedAtStart;
+        
+        frameHistogram.record(total);
+        for (int i = 0; i < PHASES.length; i++) {
+            phaseHistograms[i].record(current[i]);
+        }
+        
+        if (allocated >= 0 && lastFrameStart > 0) {
+            double seconds = (frameStart - lastFrameStart) / 1e9;
+            double rate = allocated / Math.max(seconds, 1e-6);
+            allocationRate = allocationRate == 0 ? rate : allocationRate * 0.9 + rate * 0.1;
+        }
+        lastFrameStart = frameStart;
+        
+        long[] row = history[(int) (frames % historyFrames)];
+        row[COLUMN_FRAME] = frames;
+        row[COLUMN_TOTAL] = total;
+        System.arraycopy(current, 0, row, COLUMN_PHASES, PHASES.length);
+        row[COLUMN_OBSTACLES] = obstacles;
+        row[COLUMN_POWER_UPS] = powerUps;
+        row[COLUMN_PARTICLES] = particles;
+        row[COLUMN_ALLOCATED] = allocated;
+        
+        frames++;
+        historyCount = Math.min(historyCount + 1, historyFrames);
+        lastObstacles = obstacles;
+        lastPowerUps = powerUps;
+        lastParticles = particles;
+        lastAllocated = allocated;
+    }
+    
+    /**
+     * Draws a table of per-phase percentiles in microseconds
+     */
+    public void drawOverlay(Graphics2D g2d, int x, int y) {
+        if (!enabled || phaseHistograms == null) return;
+        
+        int lineHeight = 13;
+        int width = 290;
+        int height = (PHASES.length + 5) * lineHeight + 8;
+        g2d.setColor(OVERLAY_BACKGROUND);
+        g2d.fillRect(x, y, width, height);
+        
+        g2d.setFont(OVERLAY_FONT);
+        g2d.setColor(Color.GREEN);
+        int line = y + lineHeight;
+        g2d.drawString(String.format("%-15s %6s %6s %6s %6s", "us", "p50", "p95", "p99", "max"), x + 5, line);
+        for (int i = 0; i < PHASES.length; i++) {
+            line += lineHeight;
+            drawRow(g2d, PHASES[i].getLabel(), phaseHistograms[i], x + 5, line);
+        }
+        line += lineHeight;
+        drawRow(g2d, "frame", frameHistogram, x + 5, line);
+        
+        line += lineHeight;
+        g2d.drawString(String.format("obstacles %d  power-ups %d  particles %d",
+            lastObstacles, lastPowerUps, lastParticles), x + 5, line);
+        line += lineHeight;
+        if (lastAllocated >= 0) {
+            g2d.drawString(String.format("alloc %.1f KB/frame  %.2f MB/s",
+                lastAllocated / 1024.0, allocationRate / (1024.0 * 1024.0)), x + 5, line);
+        } else {
+            g2d.drawString("alloc n/a", x + 5, line);
+        }
+        line += lineHeight;
+        g2d.drawString("frames " + frames + "  F3 hide  F4 save CSV", x + 5, line);
+    }
+    
+    private static void drawRow(Graphics2D g2d, String label, Histogram histogram, int x, int y) {
+        g2d.drawString(String.format("%-15s %6d %6d %6d %6d", label,
+            histogram.getPercentile(50) / 1000, histogram.getPercentile(95) / 1000,
+            histogram.getPercentile(99) / 1000, histogram.getMax() / 1000), x, y);
+    }
+    
+    /**
+     * Writes the recorded frames, oldest first, one row per frame with all times in nanoseconds
+     */
+    public void writeCsv(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            StringBuilder header = new StringBuilder("frame,total_ns");
+            for (Phase phase : PHASES) {
+                header.append(',').append(phase.name().toLowerCase()).append("_ns");
+            }
+            header.append(",obstacles,power_ups,particles,allocated_bytes");
+            out.println(header);
+            
+            StringBuilder line = new StringBuilder();
+            for (long frame = frames - historyCount; frame < frames; frame++) {
+                long[] row = history[(int) (frame % historyFrames)];
+                line.setLength(0);
+                for (int column = 0; column < COLUMNS; column++) {
+                    if (column > 0) line.append(',');
+                    line.append(row[column]);
+                }
+                out.println(line);
+            }
+        }
+    }
+    
+    /**
+     * @return Bytes allocated by the calling thread so far, or -1 if the JVM can't tell
+     */
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+    
+    // Getters
+    public boolean isEnabled() { return enabled; }
+    public long getFrameCount() { return frames; }
+    public int getHistoryCount() { return historyCount; }
+    public Histogram getHistogram(Phase phase) { return phaseHistograms == null ? null : phaseHistograms[phase.ordinal()]; }
+    public Histogram getFrameHistogram() { return frameHistogram; }
+}
@@ -0,0 +1,77 @@
+package highwayescape;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+/**
+ * Heavyweight drawing surface for active rendering. Frames are drawn into a
+ * BufferStrategy and presented directly by the caller instead of waiting for
+ * Swing's RepaintManager.
+ */
+public class GameCanvas extends Canvas {
+    private static final long serialVersionUID = 1L;
+    private static final int BUFFER_COUNT = 2;
+    
+    private final Renderer renderer;
+    private BufferStrategy strategy;
+    
+    /**
+     * Draws one frame into the supplied graphics
+     */
+    public interface Renderer {
+        void render(Graphics2D g2d);
+    }
+    
+    /**
+     * Constructor for GameCanvas
+     * @param renderer Callback that draws a complete frame
+     */
+    public GameCanvas(Renderer renderer) {
+        this.renderer = renderer;
+        setIgnoreRepaint(true);
+        setBackground(Color.BLACK);
+    }
+    
+    /**
+     * Renders and presents one frame, retrying if the back buffer
+     * contents are lost or restored while drawing
+     * @return false if the canvas is not on screen yet
+     */
+    public boolean renderFrame() {
+        if (!isShowing() || getWidth() <= 0 || getHeight() <= 0) {
+            return false;
+        }
+        
+        if (strategy == null) {
+            createBufferStrategy(BUFFER_COUNT);
+            strategy = getBufferStrategy();
+        }
+        
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    renderer.render(g2d);
+                } finally {
+                    g2d.dispose();
+                }
+            } while (strategy.contentsRestored());
+            
+            strategy.show();
+        } while (strategy.contentsLost());
+        
+        // Flush the window system's queue so the frame appears now
+        Toolkit.getDefaultToolkit().sync();
+        return true;
+    }
+    
+    @Override
+    public void removeNotify() {
+        // The peer owns the buffers; a new strategy is created on next use
+        if (strategy != null) {
+            strategy.dispose();
+            strategy = null;
+        }
+        super.removeNotify();
+    }
+}
@@ -1,3 +1,5 @@
+package highwayescape;
+
 import java.awt.*;
 import javax.swing.*;
 
@@ -14,12 +16,20 @@ public class GameFrame extends JFrame {
      * Constructor for GameFrame
      */
     public GameFrame() {
+        this(GamePanel.RenderMode.PASSIVE);
+    }
+    
+    /**
+     * Constructor for GameFrame
+     * @param renderMode How the game panel presents its frames
+     */
+    public GameFrame(GamePanel.RenderMode renderMode) {
         setTitle("Highway Escape");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setResizable(false);
         
-        // Preload assets
-        AssetLoader.preloadAssets();
+        // Preload assets in the background; the start menu shows the progress
+        AssetPreloader.getInstance().start();
         
         // Create card layout and main panel
         cardLayout = new CardLayout();
@@ -31,7 +41,7 @@ public class GameFrame extends JFrame {
         mainPanel.add(startMenuPanel, START_MENU_PANEL);
         
         // Create and add game panel
-        gamePanel = new GamePanel();
+        gamePanel = new GamePanel(renderMode);
         gamePanel.setGameOverListener(() -> showStartMenu());
         mainPanel.add(gamePanel, GAME_PANEL);
         
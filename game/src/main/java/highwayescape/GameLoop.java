@@ -0,0 +1,188 @@
+package highwayescape;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-timestep game loop running on a dedicated thread.
+ * The simulation always advances in steps of TICK_NANOS; an accumulator
+ * catches up after slow frames and the leftover fraction of a tick is
+ * handed to the renderer as an interpolation factor.
+ */
+public class GameLoop implements Runnable {
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    
+    // Longest frame we try to catch up on, and the most ticks run per frame
+    private static final long MAX_FRAME_NANOS = 250_000_000L;
+    private static final int MAX_TICKS_PER_FRAME = 5;
+    
+    private final Target target;
+    private final long frameNanos;
+    private final FrameStats stats;
+    private volatile boolean running;
+    private Thread thread;
+    
+    /**
+     * Receives the work of one rendered frame
+     */
+    public interface Target {
+        /**
+         * @param ticks Number of fixed simulation steps to run before drawing
+         * @param alpha Fraction of a tick elapsed since the last step, 0..1
+         */
+        void frame(int ticks, double alpha);
+    }
+    
+    /**
+     * Constructor for GameLoop
+     * @param target Receiver of simulation steps and frames
+     * @param framesPerSecond Render rate cap, 0 for uncapped
+     */
+    public GameLoop(Target target, int framesPerSecond) {
+        this.target = target;
+        this.frameNanos = framesPerSecond > 0 ? 1_000_000_000L / framesPerSecond : 0;
+        this.stats = new FrameStats();
+    }
+    
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+    
+    @Override
+    public void run() {
+        long accumulator = 0;
+        long previous = System.nanoTime();
+        long nextFrame = previous;
+        
+        while (running) {
+            long now = System.nanoTime();
+            long elapsed = now - previous;
+            previous = now;
+            
+            accumulator += Math.min(elapsed, MAX_FRAME_NANOS);
+            int ticks = 0;
+            while (accumulator >= TICK_NANOS && ticks < MAX_TICKS_PER_FRAME) {
+                accumulator -= TICK_NANOS;
+                ticks++;
+            }
+            if (ticks == MAX_TICKS_PER_FRAME) {
+                // Drop the backlog the cap left, so an overloaded loop slows down instead of spiralling
+                accumulator = Math.min(accumulator, TICK_NANOS - 1);
+            }
+            double alpha = (double) accumulator / TICK_NANOS;
+            
+            target.frame(ticks, alpha);
+            stats.record(elapsed, ticks, System.nanoTime() - now);
+            
+            if (frameNanos > 0) {
+                nextFrame += frameNanos;
+                // Don't try to make up frames we've already missed
+                if (nextFrame < System.nanoTime() - frameNanos) {
+                    nextFrame = System.nanoTime();
+                }
+                waitUntil(nextFrame);
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+    
+    private void waitUntil(long deadline) {
+        long remaining;
+        // Park for the bulk of the wait, then yield through the last millisecond
+        while ((remaining = deadline - System.nanoTime()) > 1_000_000L && running) {
+            LockSupport.parkNanos(remaining - 1_000_000L);
+        }
+        while (deadline - System.nanoTime() > 0 && running) {
+            Thread.yield();
+        }
+    }
+    
+    public FrameStats getStats() {
+        return stats;
+    }
+    
+    /**
+     * Frame pacing statistics; the standard deviation of the frame
+     * interval is the jitter figure
+     */
+    public static class FrameStats {
+        private long frames;
+        private long ticks;
+        private double meanInterval;
+        private double m2;
+        private long maxInterval;
+        private long totalWork;
+        private long rendered;
+        private long totalRender;
+        private long maxRender;
+        
+        synchronized void record(long intervalNanos, int frameTicks, long workNanos) {
+            frames++;
+            ticks += frameTicks;
+            // Welford's running mean/variance
+            double delta = intervalNanos - meanInterval;
+            meanInterval += delta / frames;
+            m2 += delta * (intervalNanos - meanInterval);
+            maxInterval = Math.max(maxInterval, intervalNanos);
+            totalWork += workNanos;
+        }
+        
+        /**
+         * Records the time spent drawing and presenting one frame
+         */
+        public synchronized void recordRender(long renderNanos) {
+            rendered++;
+            totalRender += renderNanos;
+            maxRender = Math.max(maxRender, renderNanos);
+        }
+        
+        public synchronized void reset() {
+            frames = 0;
+            ticks = 0;
+            meanInterval = 0;
+            m2 = 0;
+            maxInterval = 0;
+            totalWork = 0;
+            rendered = 0;
+            totalRender = 0;
+            maxRender = 0;
+        }
+        
+        public synchronized long getFrames() { return frames; }
+        public synchronized long getTicks() { return ticks; }
+        public synchronized double getMeanFrameMillis() { return meanInterval / 1e6; }
+        public synchronized double getMaxFrameMillis() { return maxInterval / 1e6; }
+        public synchronized double getMeanWorkMillis() { return frames == 0 ? 0 : totalWork / 1e6 / frames; }
+        public synchronized double getMeanRenderMillis() { return rendered == 0 ? 0 : totalRender / 1e6 / rendered; }
+        public synchronized double getMaxRenderMillis() { return maxRender / 1e6; }
+        
+        public synchronized double getJitterMillis() {
+            return frames < 2 ? 0 : Math.sqrt(m2 / (frames - 1)) / 1e6;
+        }
+        
+        @Override
+        public synchronized String toString() {
+            return String.format("%d frames, %d ticks, frame %.2f ms (jitter %.2f ms, max %.2f ms), "
+                + "work %.2f ms, render %.2f ms (max %.2f ms)",
+                frames, ticks, getMeanFrameMillis(), getJitterMillis(), getMaxFrameMillis(),
+                getMeanWorkMillis(), getMeanRenderMillis(), getMaxRenderMillis());
+        }
+    }
+}
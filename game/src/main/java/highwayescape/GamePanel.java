@@ -0,0 +1,657 @@
+package highwayescape;
+
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import javax.swing.*;
+
+/**
+ * Swing front end for a GameWorld: forwards keyboard input, runs the world
+ * from the game loop and paints its state.
+ */
+public class GamePanel extends JPanel implements GameLoop.Target, GameWorld.Listener {
+    private static final int PANEL_WIDTH = GameWorld.WIDTH;
+    private static final int PANEL_HEIGHT = GameWorld.HEIGHT;
+    private static final int TARGET_FPS = Integer.getInteger("highway.fps", 60);
+    private static final String RECORD_DIRECTORY = System.getProperty("highway.record");
+    private static final String REPLAY_FILE = System.getProperty("highway.replay");
+    
+    // Game state
+    private GameWorld world;
+    private GameLoop gameLoop;
+    private Random seedSource;
+    private int heldInput;
+    
+    // Replays: the recorder of the current game, or the replay being shown
+    private Replay.Recorder recorder;
+    private Replay replay;
+    
+    // Enhanced systems
+    private ParticleSystem particleSystem;
+    private HighScoreManager highScoreManager;
+    private SoundManager soundManager;
+    private FrameProfiler profiler;
+    
+    // Background
+    private RoadRenderer roadRenderer;
+    
+    // HUD text, with fonts derived and fixed text measured once
+    private static final Color HINT_COLOR = new Color(255, 255, 255, 150);
+    private static final Color PAUSE_OVERLAY = new Color(0, 0, 0, 150);
+    private static final Color GAME_OVER_OVERLAY = new Color(0, 0, 0, 180);
+    private HudText.Counter scoreCounter, livesCounter, levelCounter;
+    private HudText.Counter finalScoreCounter, levelReachedCounter;
+    private HudText.Label scoreLabel, livesLabel, levelLabel;
+    private HudText.Label moveHint, pauseHint, musicHint;
+    private HudText.Label invincibleLabel, doubleScoreLabel;
+    private HudText.Label pausedLabel, resumeLabel;
+    private HudText.Label gameOverLabel, finalScoreLabel, levelReachedLabel, restartLabel, menuLabel;
+    
+    // Fraction of a tick between the last simulation step and this frame
+    private double interpolation = 1.0;
+    
+    // Rendering
+    private final RenderMode renderMode;
+    private GameCanvas canvas;
+    
+    private GameOverListener gameOverListener;
+    
+    /**
+     * How frames reach the screen
+     */
+    public enum RenderMode {
+        /** Swing paints the panel through its own double buffer */
+        PASSIVE,
+        /** The game loop draws into a Canvas BufferStrategy and presents it */
+        ACTIVE
+    }
+    
+    /**
+     * Constructor for GamePanel
+     */
+    public GamePanel() {
+        this(RenderMode.PASSIVE);
+    }
+    
+    /**
+     * Constructor for GamePanel
+     * @param renderMode Passive Swing painting or active canvas rendering
+     */
+    public GamePanel(RenderMode renderMode) {
+        this.renderMode = renderMode;
+        setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
+        setBackground(Color.BLACK);
+        setFocusable(true);
+        
+        if (renderMode == RenderMode.ACTIVE) {
+            setLayout(new BorderLayout());
+            canvas = new GameCanvas(this::render);
+            canvas.setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
+            add(canvas, BorderLayout.CENTER);
+        }
+        
+        // Initialize systems
+        seedSource = new Random();
+        particleSystem = new ParticleSystem();
+        highScoreManager = HighScoreManager.getInstance();
+        soundManager = SoundManager.getInstance();
+        profiler = new FrameProfiler();
+        createHud();
+        
+        // Set up game loop
+        gameLoop = new GameLoop(this, TARGET_FPS);
+        
+        // Set up key listener
+        KeyAdapter keyListener = new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                handleKeyPress(e.getKeyCode());
+            }
+            
+            @Override
+            public void keyReleased(KeyEvent e) {
+                handleKeyRelease(e.getKeyCode());
+            }
+        };
+        addKeyListener(keyListener);
+        if (canvas != null) {
+            // The canvas holds keyboard focus in active mode
+            canvas.addKeyListener(keyListener);
+        }
+        
+        // The first game starts from initGame() once the assets are loaded
+    }
+    
+    /**
+     * Initialize the game state
+     */
+    public void initGame() {
+        // Wait for the background preload; a no-op once it has finished
+        AssetPreloader.getInstance().awaitLoaded();
+        if (roadRenderer == null) {
+            roadRenderer = new RoadRenderer(AssetLoader.loadImage(AssetLoader.ROAD_BACKGROUND), PANEL_WIDTH, PANEL_HEIGHT);
+        }
+        
+        // Each game gets a fresh world with its own seed, unless a replay decides it
+        if (REPLAY_FILE != null && replay == null) {
+            try {
+                replay = Replay.read(new File(REPLAY_FILE));
+            } catch (IOException e) {
+                System.err.println("Error reading replay: " + e.getMessage());
+            }
+        }
+        world = new GameWorld(replay != null ? replay.getSeed() : seedSource.nextLong());
+        world.setListener(this);
+        world.setProfiler(profiler);
+        world.setInput(heldInput);
+        if (replay != null) {
+            world.setPlayback(replay.cursor());
+        } else if (RECORD_DIRECTORY != null) {
+            recorder = new Replay.Recorder(world.getSeed());
+            world.setRecorder(recorder);
+        }
+        particleSystem.clear();
+        
+        // Start loop
+        gameLoop.getStats().reset();
+        if (!gameLoop.isRunning()) gameLoop.start();
+        
+        // Play game background music instead of engine sound
+        soundManager.playMusic("game", true);
+    }
+    
+    private void handleKeyPress(int keyCode) {
+        // Profiler keys work in every state
+        if (keyCode == KeyEvent.VK_F3) {
+            profiler.setEnabled(!profiler.isEnabled());
+            return;
+        } else if (keyCode == KeyEvent.VK_F4) {
+            saveProfile();
+            return;
+        }
+        
+        if (world == null) return;
+        
+        if (world.isGameOver()) {
+            if (keyCode == KeyEvent.VK_SPACE) {
+                initGame();
+                return;
+            } else if (keyCode == KeyEvent.VK_ESCAPE) {
+                showHighScoreDialog();
+                if (gameOverListener != null) {
+                    gameOverListener.onReturnToMainMenu();
+                }
+                return;
+            }
+        }
+        
+        if (keyCode == KeyEvent.VK_P && world.isGameRunning()) {
+            togglePause();
+            return;
+        }
+        
+        if (world.isPaused()) return;
+        
+        if (keyCode == KeyEvent.VK_M) {
+            soundManager.setMusicEnabled(!soundManager.isMusicEnabled());
+            return;
+        }
+        
+        heldInput |= inputBit(keyCode);
+        world.setInput(heldInput);
+    }
+    
+    private void handleKeyRelease(int keyCode) {
+        heldInput &= ~inputBit(keyCode);
+        if (world != null) {
+            world.setInput(heldInput);
+        }
+    }
+    
+    /**
+     * Maps a movement key to its GameWorld input bit
+     */
+    private static int inputBit(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_LEFT:
+            case KeyEvent.VK_A:
+                return GameWorld.INPUT_LEFT;
+            case KeyEvent.VK_RIGHT:
+            case KeyEvent.VK_D:
+                return GameWorld.INPUT_RIGHT;
+            case KeyEvent.VK_UP:
+            case KeyEvent.VK_W:
+                return GameWorld.INPUT_UP;
+            case KeyEvent.VK_DOWN:
+            case KeyEvent.VK_S:
+                return GameWorld.INPUT_DOWN;
+            default:
+                return 0;
+        }
+    }
+    
+    private void togglePause() {
+        world.setPaused(!world.isPaused());
+        if (world.isPaused()) {
+            // Pause background music
+            soundManager.pauseMusic();
+        } else {
+            // Resume background music where it was paused
+            soundManager.resumeMusic();
+        }
+    }
+    
+    /**
+     * Update game logic
+     */
+    private void updateGame() {
+        if (!world.tick()) return;
+        
+        long t = profiler.start();
+        PlayerCar playerCar = world.getPlayer();
+        particleSystem.createEngineSmoke(
+            playerCar.getX() + playerCar.getWidth() / 2,
+            playerCar.getY() + playerCar.getHeight()
+        );
+        particleSystem.update();
+        profiler.lap(FrameProfiler.Phase.PARTICLES, t);
+    }
+    
+    /**
+     * Writes the profiled frames to a CSV file under results/
+     */
+    private void saveProfile() {
+        if (profiler.getHistoryCount() == 0) {
+            System.out.println("No profiled frames to save; press F3 to start profiling");
+            return;
+        }
+        
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File file = new File("results", "frame-profile-" + timestamp + ".csv");
+        try {
+            profiler.writeCsv(file);
+            System.out.println("Saved " + profiler.getHistoryCount() + " frames to " + file.getPath());
+        } catch (IOException e) {
+            System.err.println("Error saving frame profile: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Writes a finished game's recording to the record directory
+     */
+    private void saveReplay(Replay finished) {
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File file = new File(RECORD_DIRECTORY, "replay-" + timestamp + Replay.EXTENSION);
+        try {
+            finished.write(file);
+            System.out.println("Saved replay of " + finished.getTicks() + " ticks to " + file.getPath());
+        } catch (IOException e) {
+            System.err.println("Error saving replay: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public void onObstacleHit(EntityStore.Archetype kind, int x, int y, boolean invincible) {
+        if (invincible) {
+            particleSystem.createExplosion(
+                x + kind.getWidth() / 2,
+                y + kind.getHeight() / 2,
+                Color.YELLOW, 20
+            );
+        } else {
+            PlayerCar playerCar = world.getPlayer();
+            particleSystem.createExplosion(
+                playerCar.getX() + playerCar.getWidth() / 2,
+                playerCar.getY() + playerCar.getHeight() / 2,
+                Color.RED, 30
+            );
+        }
+        soundManager.playSound("crash");
+    }
+    
+    @Override
+    public void onPowerUpCollected(PowerUp.PowerUpType type, int x, int y) {
+        particleSystem.createPowerUpEffect(
+            x + PowerUp.SIZE / 2,
+            y + PowerUp.SIZE / 2,
+            type.getColor()
+        );
+        soundManager.playSound("powerup");
+    }
+    
+    /**
+     * Handle game over
+     */
+    @Override
+    public void onGameOver() {
+        // Stop game music when game is over
+        soundManager.stopAllMusic();
+        if (Main.PRINT_STATS) {
+            System.out.println("Frame pacing (" + renderMode + "): " + gameLoop.getStats());
+            System.out.println("Sprite cache: " + AssetLoader.getCache());
+            System.out.println("Sound commands: " + soundManager.getCommandStats());
+            System.out.println("Entities: " + world.getEntities());
+        }
+        
+        if (replay != null) {
+            // Replayed games aren't new runs, so they stay off the score tables
+            System.out.println(replay.matches(world) ? "Replay matched the recording"
+                : "Replay diverged: " + world.getTicks() + " ticks, score " + world.getScore()
+                    + "; recorded " + replay.getTicks() + " ticks, score " + replay.getFinalScore());
+            return;
+        }
+        if (recorder != null) {
+            saveReplay(recorder.finish(world.getScore()));
+            recorder = null;
+        }
+        
+        int score = (int) world.getScore();
+        long allTimeRank = highScoreManager.getAllTimeRank(score);
+        if (allTimeRank > 0) {
+            System.out.println("All-time rank: #" + allTimeRank + " of " + (highScoreManager.getLeaderboard().size() + 1));
+        }
+        
+        // Check for high score; every other run still goes on the all-time leaderboard
+        if (highScoreManager.isHighScore(score)) {
+            showHighScoreEntryDialog();
+        } else {
+            highScoreManager.recordRun("Anonymous", score, world.getDifficulty());
+        }
+    }
+    
+    private void showHighScoreEntryDialog() {
+        String name = JOptionPane.showInputDialog(this, 
+            "New High Score! Enter your name:", 
+            "High Score", 
+            JOptionPane.PLAIN_MESSAGE);
+        
+        int level = world.getDifficulty();
+        if (name != null) {
+            highScoreManager.addHighScore(name, (int) world.getScore(), level, "Level " + level);
+        } else {
+            highScoreManager.recordRun("Anonymous", (int) world.getScore(), level);
+        }
+    }
+    
+    private void showHighScoreDialog() {
+        StringBuilder sb = new StringBuilder("HIGH SCORES\n\n");
+        List<HighScoreManager.HighScoreEntry> scores = highScoreManager.getHighScores();
+        
+        for (int i = 0; i < scores.size(); i++) {
+            HighScoreManager.HighScoreEntry entry = scores.get(i);
+            sb.append(String.format("%d. %s\n", i + 1, entry.toString()));
+        }
+        
+        if (scores.isEmpty()) {
+            sb.append("No high scores yet!");
+        }
+        
+        JOptionPane.showMessageDialog(this, sb.toString(), "High Scores", JOptionPane.INFORMATION_MESSAGE);
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        
+        // In active mode the canvas covers the panel and is drawn by the loop
+        if (canvas == null) {
+            render((Graphics2D) g);
+        }
+    }
+    
+    /**
+     * Draws a complete frame
+     * @param g2d Graphics2D object for rendering
+     */
+    private void render(Graphics2D g2d) {
+        if (canvas != null) {
+            // Buffer strategy contents are undefined, unlike a Swing back buffer
+            g2d.setColor(Color.BLACK);
+            g2d.fillRect(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
+        }
+        
+        // Nothing to draw before the first game
+        if (world == null) return;
+        
+        double alpha = interpolation;
+        PlayerCar playerCar = world.getPlayer();
+        
+        // Draw background; a plain blit, so it doesn't need any rendering hints
+        long t = profiler.start();
+        int backgroundOffset = (int) Math.round(-world.getLastBackgroundStep() * (1 - alpha));
+        roadRenderer.draw(g2d, world.getBackgroundY1() + backgroundOffset);
+        t = profiler.lap(FrameProfiler.Phase.DRAW_BACKGROUND, t);
+        
+        // Antialiasing matters for the particle, power-up and aura shapes drawn from here on
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+        // Draw particles
+        particleSystem.draw(g2d);
+        t = profiler.lap(FrameProfiler.Phase.DRAW_PARTICLES, t);
+        
+        // Draw obstacles
+        EntityStore entities = world.getEntities();
+        List<EntityStore.Archetype> obstacleKinds = world.getObstacleKinds();
+        for (int i = 0; i < obstacleKinds.size(); i++) {
+            entities.render(g2d, obstacleKinds.get(i), alpha);
+        }
+        t = profiler.lap(FrameProfiler.Phase.DRAW_OBSTACLES, t);
+        
+        // Draw power-ups
+        List<EntityStore.Archetype> powerUpKinds = world.getPowerUpKinds();
+        for (int i = 0; i < powerUpKinds.size(); i++) {
+            entities.render(g2d, powerUpKinds.get(i), alpha);
+        }
+        t = profiler.lap(FrameProfiler.Phase.DRAW_POWER_UPS, t);
+        
+        // Draw player with effects
+        if (playerCar != null) {
+            // Invincibility effect (flashing golden aura)
+            if (world.hasInvincibility()) {
+                long time = System.currentTimeMillis();
+                int auraAlpha = (int)(Math.sin(time / 100.0) * 50 + 100);
+                g2d.setColor(new Color(255, 215, 0, auraAlpha));
+                g2d.fillOval(playerCar.getRenderX(alpha) - 15, playerCar.getRenderY(alpha) - 15, 
+                           playerCar.getWidth() + 30, playerCar.getHeight() + 30);
+            }
+            
+            playerCar.render(g2d, alpha);
+        }
+        t = profiler.lap(FrameProfiler.Phase.DRAW_PLAYER, t);
+        
+        // Draw UI
+        drawUI(g2d);
+        
+        // Draw pause screen
+        if (world.isPaused()) {
+            drawPauseScreen(g2d);
+        }
+        
+        // Draw game over screen
+        if (world.isGameOver()) {
+            drawGameOverScreen(g2d);
+        }
+        profiler.lap(FrameProfiler.Phase.DRAW_HUD, t);
+        
+        profiler.drawOverlay(g2d, PANEL_WIDTH - 300, 10);
+    }
+    
+    /**
+     * Derives the HUD fonts and measures its fixed text once
+     */
+    private void createHud() {
+        HudText.Style hud = new HudText.Style(new Font("Arial", Font.BOLD, 18), Color.WHITE);
+        HudText.Style hint = new HudText.Style(new Font("Arial", Font.PLAIN, 12), HINT_COLOR);
+        HudText.Style prompt = new HudText.Style(new Font("Arial", Font.PLAIN, 16), Color.WHITE);
+        HudText.Style result = new HudText.Style(new Font("Arial", Font.BOLD, 20), Color.WHITE);
+        
+        scoreCounter = new HudText.Counter(hud);
+        livesCounter = new HudText.Counter(hud);
+        levelCounter = new HudText.Counter(hud);
+        scoreLabel = new HudText.Label(hud, "Score: ");
+        livesLabel = new HudText.Label(hud, "Lives: ");
+        levelLabel = new HudText.Label(hud, "Level: ");
+        moveHint = new HudText.Label(hint, "WASD/Arrows: Move");
+        pauseHint = new HudText.Label(hint, "P: Pause");
+        musicHint = new HudText.Label(hint, "M: Music On/Off");
+        invincibleLabel = new HudText.Label(new HudText.Style(hud.getFont(), Color.YELLOW), "INVINCIBLE");
+        doubleScoreLabel = new HudText.Label(new HudText.Style(hud.getFont(), Color.ORANGE), "2X SCORE");
+        
+        pausedLabel = new HudText.Label(new HudText.Style(new Font("Arial", Font.BOLD, 36), Color.WHITE), "PAUSED");
+        resumeLabel = new HudText.Label(prompt, "Press P to resume");
+        
+        gameOverLabel = new HudText.Label(new HudText.Style(new Font("Arial", Font.BOLD, 40), Color.RED), "GAME OVER");
+        finalScoreCounter = new HudText.Counter(result);
+        levelReachedCounter = new HudText.Counter(result);
+        finalScoreLabel = new HudText.Label(result, "Final Score: ");
+        levelReachedLabel = new HudText.Label(result, "Level Reached: ");
+        restartLabel = new HudText.Label(prompt, "Press SPACE to restart");
+        menuLabel = new HudText.Label(prompt, "Press ESC for main menu");
+    }
+    
+    private void drawUI(Graphics2D g2d) {
+        scoreLabel.draw(g2d, 20, 30);
+        scoreCounter.draw(g2d, world.getScore(), 20 + scoreLabel.getWidth(), 30);
+        livesLabel.draw(g2d, 20, 55);
+        livesCounter.drawFraction(g2d, world.getLives(), world.getMaxLives(), 20 + livesLabel.getWidth(), 55);
+        levelLabel.draw(g2d, 20, 80);
+        levelCounter.draw(g2d, world.getDifficulty(), 20 + levelLabel.getWidth(), 80);
+        
+        // Draw active power-ups, before the hints so the font changes only once
+        int powerUpY = 105;
+        if (world.hasInvincibility()) {
+            invincibleLabel.draw(g2d, 20, powerUpY);
+            powerUpY += 25;
+        }
+        if (world.hasScoreMultiplier()) {
+            doubleScoreLabel.draw(g2d, 20, powerUpY);
+        }
+        
+        moveHint.draw(g2d, PANEL_WIDTH - 120, PANEL_HEIGHT - 60);
+        pauseHint.draw(g2d, PANEL_WIDTH - 120, PANEL_HEIGHT - 45);
+        musicHint.draw(g2d, PANEL_WIDTH - 120, PANEL_HEIGHT - 30);
+    }
+    
+    private void drawPauseScreen(Graphics2D g2d) {
+        g2d.setColor(PAUSE_OVERLAY);
+        g2d.fillRect(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
+        
+        drawCentered(g2d, pausedLabel, PANEL_HEIGHT / 2);
+        drawCentered(g2d, resumeLabel, PANEL_HEIGHT / 2 + 50);
+    }
+    
+    private void drawGameOverScreen(Graphics2D g2d) {
+        g2d.setColor(GAME_OVER_OVERLAY);
+        g2d.fillRect(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
+        
+        drawCentered(g2d, gameOverLabel, PANEL_HEIGHT / 2 - 80);
+        drawCentered(g2d, finalScoreLabel, finalScoreCounter, world.getScore(), PANEL_HEIGHT / 2 - 30);
+        drawCentered(g2d, levelReachedLabel, levelReachedCounter, world.getDifficulty(), PANEL_HEIGHT / 2);
+        drawCentered(g2d, restartLabel, PANEL_HEIGHT / 2 + 50);
+        drawCentered(g2d, menuLabel, PANEL_HEIGHT / 2 + 80);
+    }
+    
+    private void drawCentered(Graphics2D g2d, HudText.Label label, int y) {
+        label.draw(g2d, (PANEL_WIDTH - label.getWidth()) / 2, y);
+    }
+    
+    /**
+     * Draws a label followed by a number, centered as one string
+     */
+    private void drawCentered(Graphics2D g2d, HudText.Label label, HudText.Counter counter, long value, int y) {
+        int x = (PANEL_WIDTH - label.getWidth() - counter.measure(value)) / 2;
+        label.draw(g2d, x, y);
+        counter.draw(g2d, value, x + label.getWidth(), y);
+    }
+    
+    /**
+     * Sets the game over listener
+     * @param listener The listener to set
+     */
+    public void setGameOverListener(GameOverListener listener) {
+        this.gameOverListener = listener;
+    }
+    
+    /**
+     * Interface for game over callbacks
+     */
+    public interface GameOverListener {
+        void onReturnToMainMenu();
+    }
+    
+    @Override
+    public boolean requestFocusInWindow() {
+        if (canvas != null) {
+            return canvas.requestFocusInWindow();
+        }
+        return super.requestFocusInWindow();
+    }
+    
+    /**
+     * @return The current game's world, or null before the first game starts
+     */
+    public GameWorld getWorld() {
+        return world;
+    }
+    
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+    
+    /**
+     * Returns the loop driving this panel, for frame pacing statistics
+     */
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+    
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * Called from the game loop thread once per frame. Simulation and
+     * painting both run on the EDT so key handling and dialogs see a
+     * consistent game state.
+     */
+    @Override
+    public void frame(int ticks, double alpha) {
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                profiler.beginFrame();
+                for (int i = 0; i < ticks; i++) {
+                    updateGame();
+                }
+                interpolation = alpha;
+                
+                long renderStart = System.nanoTime();
+                boolean rendered;
+                if (canvas != null) {
+                    rendered = canvas.renderFrame();
+                } else {
+                    rendered = isShowing();
+                    if (rendered) {
+                        paintImmediately(0, 0, getWidth(), getHeight());
+                    }
+                }
+                if (rendered) {
+                    gameLoop.getStats().recordRender(System.nanoTime() - renderStart);
+                }
+                profiler.endFrame(world.getObstacleCount(), world.getPowerUpCount(),
+                    particleSystem.getCount());
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            System.err.println("Error in game loop: " + e.getCause());
+            e.getCause().printStackTrace();
+        }
+    }
+}
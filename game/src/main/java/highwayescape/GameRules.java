@@ -0,0 +1,54 @@
+package highwayescape;
+
+/**
+ * The tunable difficulty constants of a game. GameWorld plays by DEFAULT
+ * unless given other rules, e.g. by DifficultySweep trying alternatives.
+ */
+public final class GameRules {
+    public static final GameRules DEFAULT = new GameRules(GameWorld.OBSTACLE_SPAWN_INTERVAL,
+        GameWorld.SPAWN_INTERVAL_STEP, GameWorld.MIN_SPAWN_INTERVAL,
+        GameWorld.TRUCK_SPAWN_PROBABILITY, GameWorld.POWER_UP_SPAWN_INTERVAL);
+    
+    private final int obstacleSpawnInterval;
+    private final int spawnIntervalStep;
+    private final int minSpawnInterval;
+    private final double truckProbability;
+    private final int powerUpSpawnInterval;
+    
+    /**
+     * Constructor for GameRules
+     * @param obstacleSpawnInterval Milliseconds between obstacles at the start
+     * @param spawnIntervalStep Milliseconds taken off that interval per level
+     * @param minSpawnInterval Shortest interval the levels can bring it down to
+     * @param truckProbability Chance that an obstacle is a truck
+     * @param powerUpSpawnInterval Milliseconds between power-ups
+     */
+    public GameRules(int obstacleSpawnInterval, int spawnIntervalStep, int minSpawnInterval,
+                     double truckProbability, int powerUpSpawnInterval) {
+        this.obstacleSpawnInterval = obstacleSpawnInterval;
+        this.spawnIntervalStep = spawnIntervalStep;
+        this.minSpawnInterval = minSpawnInterval;
+        this.truckProbability = truckProbability;
+        this.powerUpSpawnInterval = powerUpSpawnInterval;
+    }
+    
+    /**
+     * @return Milliseconds between obstacles at a level
+     */
+    public int spawnIntervalAt(int level) {
+        return Math.max(minSpawnInterval, obstacleSpawnInterval - level * spawnIntervalStep);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("spawn=%d step=%d min=%d truck=%.2f powerup=%d", obstacleSpawnInterval,
+            spawnIntervalStep, minSpawnInterval, truckProbability, powerUpSpawnInterval);
+    }
+    
+    // Getters
+    public int getObstacleSpawnInterval() { return obstacleSpawnInterval; }
+    public int getSpawnIntervalStep() { return spawnIntervalStep; }
+    public int getMinSpawnInterval() { return minSpawnInterval; }
+    public double getTruckProbability() { return truckProbability; }
+    public int getPowerUpSpawnInterval() { return powerUpSpawnInterval; }
+}
@@ -0,0 +1,553 @@
+package highwayescape;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Game rules and state without any Swing dependency. The world only moves
+ * when tick() or advance() is called, so it can run headless and faster
+ * than real time. Randomness comes from the seed and time from the
+ * injected clock, which by default is derived from the tick count, so
+ * with the default clock a seed and the input of every tick (a Replay)
+ * determine the whole game.
+ */
+public class GameWorld {
+    // Play field
+    public static final int WIDTH = 500;
+    public static final int HEIGHT = 700;
+    
+    // Game constants
+    public static final int PLAYER_SPEED = 5;
+    public static final int OBSTACLE_SPEED = 3;
+    public static final int POWER_UP_SPEED = 3;
+    public static final int OBSTACLE_SPAWN_INTERVAL = 2000;
+    public static final int SPAWN_INTERVAL_STEP = 250;
+    public static final int MIN_SPAWN_INTERVAL = 800;
+    public static final double TRUCK_SPAWN_PROBABILITY = 0.3;
+    public static final int POWER_UP_SPAWN_INTERVAL = 8000;
+    public static final int START_LIVES = 3;
+    public static final int MAX_LIVES = 5;
+    
+    // Input bits, one per movement key
+    public static final int INPUT_LEFT = 1;
+    public static final int INPUT_RIGHT = 1 << 1;
+    public static final int INPUT_UP = 1 << 2;
+    public static final int INPUT_DOWN = 1 << 3;
+    
+    private final long seed;
+    private final Random random;
+    private final LongSupplier clock;
+    private final GameRules rules;
+    private Listener listener;
+    private FrameProfiler profiler = new FrameProfiler();
+    private Replay.Recorder recorder;
+    private Replay.Cursor playback;
+    
+    // Game state
+    private boolean isGameRunning;
+    private boolean isGameOver;
+    private boolean isPaused;
+    private long ticks;
+    private long gameStartTime;
+    private long score;
+    private int lives;
+    private int currentDifficulty;
+    private int input;
+    
+    // Game objects; obstacles and power-ups are entities, one archetype per kind
+    private PlayerCar playerCar;
+    private final EntityStore entities;
+    private final EntityStore.Archetype carKind;
+    private final EntityStore.Archetype truckKind;
+    private final EntityStore.Archetype[] obstacleKinds;
+    // Indexed by PowerUpType ordinal
+    private final EntityStore.Archetype[] powerUpKinds;
+    private final List<EntityStore.Archetype> obstacleKindsView;
+    private final List<EntityStore.Archetype> powerUpKindsView;
+    
+    // Collision handlers, created once so a tick allocates nothing
+    private final EntityStore.HitListener obstacleHit = this::hitObstacle;
+    private final EntityStore.HitListener powerUpHit = this::collectPowerUp;
+    private long collectTime;
+    
+    // Spawn schedule, in clock milliseconds
+    private int obstacleSpawnInterval;
+    private long nextObstacleSpawn;
+    private long nextPowerUpSpawn;
+    
+    // Power-up effects
+    private boolean hasInvincibility;
+    private boolean hasScoreMultiplier;
+    private long invincibilityEndTime, scoreMultiplierEndTime;
+    
+    // Background scrolling
+    private int backgroundY1;
+    private int backgroundY2;
+    private int backgroundSpeed = 5;
+    private int lastBackgroundStep;
+    
+    /**
+     * Receives gameplay events, e.g. to play sounds or spawn particles
+     */
+    public interface Listener {
+        default void onObstacleHit(EntityStore.Archetype kind, int x, int y, boolean invincible) {}
+        default void onPowerUpCollected(PowerUp.PowerUpType type, int x, int y) {}
+        default void onGameOver() {}
+    }
+    
+    /**
+     * Constructor for GameWorld using the tick count as its clock
+     * @param seed Seed for all gameplay randomness
+     */
+    public GameWorld(long seed) {
+        this(seed, null);
+    }
+    
+    /**
+     * Constructor for GameWorld
+     * @param seed Seed for all gameplay randomness
+     * @param clock Millisecond clock, or null to derive time from ticks
+     */
+    public GameWorld(long seed, LongSupplier clock) {
+        this(seed, clock, GameRules.DEFAULT);
+    }
+    
+    /**
+     * Constructor for GameWorld
+     * @param seed Seed for all gameplay randomness
+     * @param clock Millisecond clock, or null to derive time from ticks
+     * @param rules Difficulty constants to play by
+     */
+    public GameWorld(long seed, LongSupplier clock, GameRules rules) {
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.clock = clock != null ? clock : this::getElapsedMillis;
+        this.rules = rules;
+        this.entities = new EntityStore();
+        this.carKind = entities.register(EntityStore.Archetype.car());
+        this.truckKind = entities.register(EntityStore.Archetype.truck());
+        this.obstacleKinds = new EntityStore.Archetype[] { carKind, truckKind };
+        this.powerUpKinds = new EntityStore.Archetype[PowerUp.PowerUpType.VALUES.length];
+        for (PowerUp.PowerUpType type : PowerUp.PowerUpType.VALUES) {
+            powerUpKinds[type.ordinal()] = entities.register(EntityStore.Archetype.powerUp(type));
+        }
+        this.obstacleKindsView = Collections.unmodifiableList(Arrays.asList(obstacleKinds));
+        this.powerUpKindsView = Collections.unmodifiableList(Arrays.asList(powerUpKinds));
+        reset();
+    }
+    
+    /**
+     * Starts a new game
+     */
+    public void reset() {
+        // Create player car in the middle bottom of the screen
+        BufferedImage playerSprite = AssetLoader.loadImage(AssetLoader.PLAYER_CAR);
+        int playerX = (WIDTH - playerSprite.getWidth()) / 2;
+        int playerY = HEIGHT - playerSprite.getHeight() - 50;
+        playerCar = new PlayerCar(playerX, playerY, PLAYER_SPEED);
+        applyInput();
+        
+        // Clear game objects, keeping the store's arrays for reuse
+        entities.clear();
+        
+        // Reset game state
+        isGameOver = false;
+        isPaused = false;
+        score = 0;
+        lives = START_LIVES;
+        currentDifficulty = 1;
+        hasInvincibility = false;
+        hasScoreMultiplier = false;
+        
+        // Reset background
+        backgroundY1 = 0;
+        backgroundY2 = -HEIGHT;
+        lastBackgroundStep = 0;
+        
+        gameStartTime = clock.getAsLong();
+        obstacleSpawnInterval = rules.getObstacleSpawnInterval();
+        nextObstacleSpawn = gameStartTime + obstacleSpawnInterval;
+        nextPowerUpSpawn = gameStartTime + rules.getPowerUpSpawnInterval();
+        isGameRunning = true;
+    }
+    
+    /**
+     * Runs a number of ticks back to back
+     * @return Number of ticks that actually advanced the game
+     */
+    public int advance(int tickCount) {
+        int advanced = 0;
+        for (int i = 0; i < tickCount; i++) {
+            if (!tick()) break;
+            advanced++;
+        }
+        return advanced;
+    }
+    
+    /**
+     * Advances the simulation by one fixed step
+     * @return false if the game is not running, paused or over
+     */
+    public boolean tick() {
+        if (!isGameRunning || isGameOver || isPaused) return false;
+        
+        ticks++;
+        if (playback != null) {
+            setInput(playback.next());
+        }
+        if (recorder != null) {
+            recorder.record(input);
+        }
+        long currentTime = clock.getAsLong();
+        
+        // Update score
+        long baseScore = (currentTime - gameStartTime) / 100;
+        score = hasScoreMultiplier ? baseScore * 2 : baseScore;
+        
+        long t = profiler.start();
+        updateDifficulty();
+        updatePowerUpEffects(currentTime);
+        t = profiler.lap(FrameProfiler.Phase.DIFFICULTY, t);
+        updateSpawns(currentTime);
+        t = profiler.lap(FrameProfiler.Phase.SPAWN, t);
+        
+        playerCar.update(WIDTH, HEIGHT);
+        t = profiler.lap(FrameProfiler.Phase.PLAYER, t);
+        
+        updateObstacles(currentTime);
+        t = profiler.lap(FrameProfiler.Phase.OBSTACLES, t);
+        if (isGameOver) return true;
+        updatePowerUps(currentTime);
+        t = profiler.lap(FrameProfiler.Phase.POWER_UPS, t);
+        updateBackground();
+        profiler.lap(FrameProfiler.Phase.BACKGROUND, t);
+        return true;
+    }
+    
+    private void updateSpawns(long currentTime) {
+        if (currentTime >= nextObstacleSpawn) {
+            spawnObstacle();
+            nextObstacleSpawn += obstacleSpawnInterval;
+        }
+        if (currentTime >= nextPowerUpSpawn) {
+            spawnPowerUp(currentTime);
+            nextPowerUpSpawn += rules.getPowerUpSpawnInterval();
+        }
+    }
+    
+    /**
+     * Spawn a new obstacle at random position
+     */
+    void spawnObstacle() {
+        // Decide if we spawn a car or truck
+        boolean truck = random.nextDouble() < rules.getTruckProbability();
+        
+        int obstacleWidth, obstacleHeight, yPos;
+        
+        if (!truck) {
+            obstacleWidth = carKind.getWidth();
+            obstacleHeight = carKind.getHeight();
+            yPos = -obstacleHeight;
+        } else {
+            BufferedImage cabSprite = AssetLoader.loadImage(AssetLoader.TRUCK_CAB);
+            BufferedImage trailerSprite = AssetLoader.loadImage(AssetLoader.TRUCK_TRAILER);
+            obstacleWidth = truckKind.getWidth();
+            
+            // Spawning has always measured trucks with this overlap rather than
+            // TRAILER_OVERLAP; changing it would change where seeded games place them
+            int overlap = 20;
+            obstacleHeight = cabSprite.getHeight() + trailerSprite.getHeight() - overlap;
+            yPos = -obstacleHeight;
+        }
+        
+        int roadWidth = WIDTH - 100;
+        int startX = 50;
+        int maxAttempts = 10;
+        
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            int x = startX + random.nextInt(roadWidth - obstacleWidth);
+            
+            // Keep a gap around the whole vehicle, cab and trailer included
+            if (!isCrowded(obstacleKinds, 150, x, yPos, obstacleWidth, obstacleHeight, 10, 30)) {
+                // Obstacles don't bob, so their spawn time is never read
+                entities.spawn(truck ? truckKind : carKind, x, yPos, 0, OBSTACLE_SPEED, 0);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Spawn a new power-up at random position
+     */
+    void spawnPowerUp(long currentTime) {
+        PowerUp.PowerUpType[] types = PowerUp.PowerUpType.VALUES;
+        PowerUp.PowerUpType randomType = types[random.nextInt(types.length)];
+        
+        int powerUpWidth = PowerUp.SIZE, powerUpHeight = PowerUp.SIZE;
+        int roadWidth = WIDTH - 140;
+        int startX = 50;
+        int maxAttempts = 15;
+        
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            int x = startX + random.nextInt(roadWidth);
+            int y = -50;
+            
+            // Candidate area including a 20px margin
+            int areaX = x - 20, areaY = y - 20;
+            int areaWidth = powerUpWidth + 40, areaHeight = powerUpHeight + 40;
+            
+            // Check collision with obstacles and with other power-ups
+            boolean canSpawn = !isCrowded(obstacleKinds, 200, areaX, areaY, areaWidth, areaHeight, 30, 30)
+                && !isCrowded(powerUpKinds, 200, areaX, areaY, areaWidth, areaHeight, 25, 25);
+            
+            // Check collision with player
+            if (canSpawn) {
+                if (Bounds.intersects(areaX, areaY, areaWidth, areaHeight,
+                        playerCar.getX() - 50, playerCar.getY() - 100,
+                        playerCar.getWidth() + 100, playerCar.getHeight() + 150)) {
+                    canSpawn = false;
+                }
+            }
+            
+            if (canSpawn) {
+                entities.spawn(powerUpKinds[randomType.ordinal()], x, y, 0, POWER_UP_SPEED, currentTime);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Whether an area comes too close to an entity of the given kinds
+     * that is still above a line; each entity is widened by a margin
+     * @param aboveY Only entities whose y is above this count
+     */
+    private static boolean isCrowded(EntityStore.Archetype[] kinds, int aboveY, int x, int y,
+                                     int width, int height, int marginX, int marginY) {
+        for (EntityStore.Archetype kind : kinds) {
+            for (int i = 0; i < kind.getCount(); i++) {
+                if (kind.getY(i) < aboveY && Bounds.intersects(x, y, width, height,
+                        kind.getX(i) - marginX, kind.getY(i) - marginY,
+                        kind.getWidth() + 2 * marginX, kind.getHeight() + 2 * marginY)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private void updateDifficulty() {
+        int newDifficulty = (int) (score / 500) + 1;
+        if (newDifficulty > currentDifficulty) {
+            currentDifficulty = newDifficulty;
+            obstacleSpawnInterval = rules.spawnIntervalAt(currentDifficulty);
+        }
+    }
+    
+    private void updatePowerUpEffects(long currentTime) {
+        if (hasInvincibility && currentTime > invincibilityEndTime) hasInvincibility = false;
+        if (hasScoreMultiplier && currentTime > scoreMultiplierEndTime) hasScoreMultiplier = false;
+    }
+    
+    void updateObstacles(long currentTime) {
+        // Move every obstacle and drop the ones that have left the road
+        for (EntityStore.Archetype kind : obstacleKinds) {
+            entities.move(kind, currentTime);
+            entities.expire(kind);
+        }
+        
+        // Only obstacles sharing a grid cell with the player reach the exact test
+        int playerX = playerCar.getX(), playerY = playerCar.getY();
+        int playerWidth = playerCar.getWidth(), playerHeight = playerCar.getHeight();
+        for (EntityStore.Archetype kind : obstacleKinds) {
+            if (!entities.collide(kind, playerX, playerY, playerWidth, playerHeight, obstacleHit)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Hit listener for obstacles
+     * @return false once the hit ends the game
+     */
+    private boolean hitObstacle(EntityStore.Archetype kind, int index) {
+        if (!hasInvincibility) {
+            lives--;
+        }
+        if (listener != null) {
+            listener.onObstacleHit(kind, kind.getX(index), kind.getY(index), hasInvincibility);
+        }
+        if (lives <= 0) {
+            gameOver();
+            return false;
+        }
+        return true;
+    }
+    
+    private void updatePowerUps(long currentTime) {
+        for (EntityStore.Archetype kind : powerUpKinds) {
+            entities.move(kind, currentTime);
+            entities.expire(kind);
+        }
+        
+        int playerX = playerCar.getX(), playerY = playerCar.getY();
+        int playerWidth = playerCar.getWidth(), playerHeight = playerCar.getHeight();
+        collectTime = currentTime;
+        for (EntityStore.Archetype kind : powerUpKinds) {
+            entities.collide(kind, playerX, playerY, playerWidth, playerHeight, powerUpHit);
+        }
+    }
+    
+    /**
+     * Hit listener for power-ups
+     */
+    private boolean collectPowerUp(EntityStore.Archetype kind, int index) {
+        PowerUp.PowerUpType type = kind.getPowerUpType();
+        applyPowerUp(type, collectTime);
+        if (listener != null) {
+            listener.onPowerUpCollected(type, kind.getX(index), kind.getY(index));
+        }
+        return true;
+    }
+    
+    private void applyPowerUp(PowerUp.PowerUpType type, long currentTime) {
+        switch (type) {
+            case INVINCIBILITY:
+                hasInvincibility = true;
+                invincibilityEndTime = currentTime + type.getDuration();
+                break;
+            case SCORE_MULTIPLIER:
+                hasScoreMultiplier = true;
+                scoreMultiplierEndTime = currentTime + type.getDuration();
+                break;
+            case EXTRA_LIFE:
+                if (lives < MAX_LIVES) {
+                    lives++;
+                }
+                break;
+        }
+    }
+    
+    /**
+     * Update the scrolling background
+     */
+    private void updateBackground() {
+        // Adjust background speed based on player movement
+        int dynamicBackgroundSpeed = backgroundSpeed;
+        
+        if (playerCar.isMovingForward()) {
+            dynamicBackgroundSpeed += 3;
+        } else if (playerCar.isMovingBackward()) {
+            dynamicBackgroundSpeed -= 2;
+            if (dynamicBackgroundSpeed < 1) dynamicBackgroundSpeed = 1;
+        }
+        
+        lastBackgroundStep = dynamicBackgroundSpeed;
+        backgroundY1 += dynamicBackgroundSpeed;
+        backgroundY2 += dynamicBackgroundSpeed;
+        
+        // Reset background positions when they go off screen
+        if (backgroundY1 >= HEIGHT) {
+            backgroundY1 = backgroundY2 - HEIGHT;
+        }
+        if (backgroundY2 >= HEIGHT) {
+            backgroundY2 = backgroundY1 - HEIGHT;
+        }
+    }
+    
+    private void gameOver() {
+        isGameOver = true;
+        if (listener != null) {
+            listener.onGameOver();
+        }
+    }
+    
+    /**
+     * Places an obstacle directly, bypassing the spawn rules
+     * @param kind carKind or truckKind
+     * @param speed Pixels moved down per tick
+     */
+    void addObstacle(EntityStore.Archetype kind, int x, int y, int speed) {
+        entities.spawn(kind, x, y, 0, speed, 0);
+    }
+    
+    /**
+     * Sets which movement keys are held, as a combination of INPUT_* bits
+     */
+    public void setInput(int input) {
+        this.input = input;
+        applyInput();
+    }
+    
+    private void applyInput() {
+        playerCar.setMovingLeft((input & INPUT_LEFT) != 0);
+        playerCar.setMovingRight((input & INPUT_RIGHT) != 0);
+        playerCar.setMovingUp((input & INPUT_UP) != 0);
+        playerCar.setMovingDown((input & INPUT_DOWN) != 0);
+    }
+    
+    /**
+     * Records the input of every tick from now on, or stops recording if null
+     */
+    public void setRecorder(Replay.Recorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    /**
+     * Takes the input of every tick from a replay instead of setInput
+     */
+    public void setPlayback(Replay.Cursor playback) {
+        this.playback = playback;
+    }
+    
+    public void setPaused(boolean paused) {
+        this.isPaused = paused;
+    }
+    
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+    
+    /**
+     * Sets the profiler that times each phase of a tick
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler != null ? profiler : new FrameProfiler();
+    }
+    
+    /**
+     * Milliseconds of simulated time, derived from the tick count
+     */
+    public long getElapsedMillis() {
+        return ticks * 1000L / GameLoop.TICKS_PER_SECOND;
+    }
+    
+    // Getters
+    public long getSeed() { return seed; }
+    public GameRules getRules() { return rules; }
+    public boolean isGameRunning() { return isGameRunning; }
+    public boolean isGameOver() { return isGameOver; }
+    public boolean isPaused() { return isPaused; }
+    public long getTicks() { return ticks; }
+    public long getScore() { return score; }
+    public int getLives() { return lives; }
+    public int getMaxLives() { return MAX_LIVES; }
+    public int getDifficulty() { return currentDifficulty; }
+    public int getInput() { return input; }
+    public boolean hasInvincibility() { return hasInvincibility; }
+    public boolean hasScoreMultiplier() { return hasScoreMultiplier; }
+    public PlayerCar getPlayer() { return playerCar; }
+    public EntityStore getEntities() { return entities; }
+    public EntityStore.Archetype getCarKind() { return carKind; }
+    public EntityStore.Archetype getTruckKind() { return truckKind; }
+    public List<EntityStore.Archetype> getObstacleKinds() { return obstacleKindsView; }
+    public List<EntityStore.Archetype> getPowerUpKinds() { return powerUpKindsView; }
+    public int getObstacleCount() { return carKind.getCount() + truckKind.getCount(); }
+    public int getPowerUpCount() { return entities.size() - getObstacleCount(); }
+    public int getBackgroundY1() { return backgroundY1; }
+    public int getBackgroundY2() { return backgroundY2; }
+    public int getLastBackgroundStep() { return lastBackgroundStep; }
+}
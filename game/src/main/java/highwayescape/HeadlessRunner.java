@@ -0,0 +1,67 @@
+package highwayescape;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Runs the game simulation without a display, as fast as it will go.
+ * Usage: java -cp game/target/classes highwayescape.HeadlessRunner [ticks] [seed]
+ *    or: java -cp game/target/classes highwayescape.HeadlessRunner replay file [repeats]
+ */
+public class HeadlessRunner {
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        Main.prepareAssets();
+        
+        if (args.length > 1 && args[0].equals("replay")) {
+            int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+            System.exit(replay(Replay.read(new File(args[1])), repeats) ? 0 : 1);
+        }
+        
+        long totalTicks = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        
+        GameWorld world = new GameWorld(seed);
+        int games = 1;
+        long bestScore = 0;
+        
+        long start = System.nanoTime();
+        for (long i = 0; i < totalTicks; i++) {
+            if (!world.tick()) {
+                bestScore = Math.max(bestScore, world.getScore());
+                world.reset();
+                games++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        double seconds = elapsed / 1e9;
+        System.out.printf("Simulated %d ticks (%d games, best score %d) in %.2f s: %.0f ticks/s%n",
+            totalTicks, games, Math.max(bestScore, world.getScore()), seconds, totalTicks / seconds);
+    }
+    
+    /**
+     * Plays a replay back a number of times, checking each playback against the recording
+     * @return Whether every playback matched
+     */
+    static boolean replay(Replay replay, int repeats) {
+        boolean matched = true;
+        long start = System.nanoTime();
+        for (int i = 0; i < repeats; i++) {
+            GameWorld world = replay.play();
+            if (!replay.matches(world)) {
+                System.out.printf("Playback %d diverged: %d ticks, score %d; recorded %d ticks, score %d%n",
+                    i + 1, world.getTicks(), world.getScore(), replay.getTicks(), replay.getFinalScore());
+                matched = false;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        double seconds = elapsed / 1e9;
+        long totalTicks = replay.getTicks() * repeats;
+        System.out.printf("Replayed %d ticks (seed %d, score %d) %d times in %.2f s: %.0f ticks/s, %s%n",
+            replay.getTicks(), replay.getSeed(), replay.getFinalScore(), repeats, seconds, totalTicks / seconds,
+            matched ? "all matched" : "DIVERGED");
+        return matched;
+    }
+}
@@ -0,0 +1,459 @@
+package highwayescape;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The high score table, shared by every panel through getInstance. The
+ * table is an immutable snapshot that is replaced whole on every change,
+ * so readers on any thread take it without locking or copying; changes
+ * are serialised and announced to listeners.
+ */
+public class HighScoreManager {
+    private static final String HIGH_SCORE_FILE = "highscores.dat";
+    private static final String LEADERBOARD_FILE = "leaderboard.dat";
+    private static final int MAX_HIGH_SCORES = 10;
+    
+    // Binary format: magic, version, entry count, entries, then a CRC32 of everything before it
+    private static final int MAGIC = 0x48455343; // "HESC"
+    private static final int VERSION = 1;
+    
+    // One writer for every manager, so saves never run on the caller's thread
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "highscore-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Leaderboards by file, shared so two managers never map the same file twice;
+    // null for a file that failed to open, so it isn't retried for every manager
+    private static final Map<String, LeaderboardStore> LEADERBOARDS = new HashMap<>();
+    
+    static {
+        // The frame exits with System.exit, so let a save in progress finish first
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            WRITER.shutdown();
+            try {
+                WRITER.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            closeLeaderboards();
+        }, "highscore-flush"));
+    }
+    
+    private static HighScoreManager instance;
+    
+    private final String highScoreFile;
+    private volatile LeaderboardStore leaderboard;
+    private volatile List<HighScoreEntry> highScores = Collections.emptyList();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicReference<List<HighScoreEntry>> pendingSave = new AtomicReference<>();
+    private volatile CompletableFuture<Void> lastSave = CompletableFuture.completedFuture(null);
+    
+    public static class HighScoreEntry implements Comparable<HighScoreEntry>, Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        
+        public final String playerName;
+        public final int score;
+        public final String date;
+        public final int difficulty;
+        public final String difficultyName;
+        
+        public HighScoreEntry(String playerName, int score, int difficulty, String difficultyName) {
+            this(playerName, score, difficulty, difficultyName, LocalDateTime.now().format(DATE_FORMAT));
+        }
+        
+        HighScoreEntry(String playerName, int score, int difficulty, String difficultyName, String date) {
+            this.playerName = playerName;
+            this.score = score;
+            this.difficulty = difficulty;
+            this.difficultyName = difficultyName;
+            this.date = date;
+        }
+        
+        @Override
+        public int compareTo(HighScoreEntry other) {
+            return Integer.compare(other.score, this.score);
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%s - %d (%s) - %s", playerName, score, difficultyName, date);
+        }
+    }
+    
+    /**
+     * Told about every change to the table
+     */
+    public interface Listener {
+        /**
+         * Called on the thread that made the change, while the table is still
+         * locked, so tables arrive in the order they were made. Keep it short
+         * and don't change the table from here.
+         * @param highScores The new table, best first
+         */
+        void highScoresChanged(List<HighScoreEntry> highScores);
+    }
+    
+    private HighScoreManager() {
+        this(HIGH_SCORE_FILE, LEADERBOARD_FILE);
+    }
+    
+    public static synchronized HighScoreManager getInstance() {
+        if (instance == null) {
+            instance = new HighScoreManager();
+        }
+        return instance;
+    }
+    
+    /**
+     * Constructor for HighScoreManager
+     * @param highScoreFile File the scores are read from and saved to
+     */
+    HighScoreManager(String highScoreFile) {
+        this(highScoreFile, null);
+    }
+    
+    /**
+     * Constructor for HighScoreManager
+     * @param highScoreFile File the top scores are read from and saved to
+     * @param leaderboardFile File every run is recorded in, or null to keep only the top scores
+     */
+    HighScoreManager(String highScoreFile, String leaderboardFile) {
+        this.highScoreFile = highScoreFile;
+        loadHighScores();
+        
+        if (leaderboardFile != null) {
+            // Opening can mean rebuilding the index, so keep it off the caller's thread
+            WRITER.execute(() -> leaderboard = leaderboardFor(leaderboardFile));
+        }
+    }
+    
+    public boolean isHighScore(int score) {
+        List<HighScoreEntry> scores = highScores;
+        return scores.size() < MAX_HIGH_SCORES || 
+               score > scores.get(scores.size() - 1).score;
+    }
+    
+    public int getHighScoreRank(int score) {
+        List<HighScoreEntry> scores = highScores;
+        int index = insertionIndex(scores, score);
+        if (index < scores.size()) {
+            return index + 1;
+        }
+        return scores.size() < MAX_HIGH_SCORES ? scores.size() + 1 : -1;
+    }
+    
+    /**
+     * Binary search for the first entry with a lower score, which is where
+     * a new score goes: after any equal scores, as the old stable sort put it
+     */
+    private static int insertionIndex(List<HighScoreEntry> scores, int score) {
+        int low = 0;
+        int high = scores.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (scores.get(middle).score >= score) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    public void addHighScore(String playerName, int score, int difficulty, String difficultyName) {
+        if (playerName == null || playerName.trim().isEmpty()) {
+            playerName = "Anonymous";
+        }
+        
+        HighScoreEntry newEntry = new HighScoreEntry(playerName.trim(), score, difficulty, difficultyName);
+        List<HighScoreEntry> updated;
+        synchronized (this) {
+            updated = new ArrayList<>(highScores.size() + 1);
+            updated.addAll(highScores);
+            updated.add(insertionIndex(updated, score), newEntry);
+            if (updated.size() > MAX_HIGH_SCORES) {
+                updated.remove(updated.size() - 1);
+            }
+            notifyListeners(publish(updated));
+        }
+        
+        recordRun(newEntry.playerName, score, difficulty);
+    }
+    
+    /**
+     * Makes a new table the current one and queues it for saving; callers hold the lock
+     * @return The published, unmodifiable table
+     */
+    private List<HighScoreEntry> publish(List<HighScoreEntry> updated) {
+        List<HighScoreEntry> snapshot = Collections.unmodifiableList(updated);
+        highScores = snapshot;
+        saveHighScores(snapshot);
+        return snapshot;
+    }
+    
+    /**
+     * Announces a table; callers hold the lock, so no later table can overtake it
+     */
+    private void notifyListeners(List<HighScoreEntry> snapshot) {
+        for (Listener listener : listeners) {
+            listener.highScoresChanged(snapshot);
+        }
+    }
+    
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Adds a run to the all-time leaderboard, on the writer thread
+     */
+    public void recordRun(String playerName, int score, int difficulty) {
+        long now = System.currentTimeMillis();
+        WRITER.execute(() -> {
+            LeaderboardStore store = leaderboard;
+            if (store == null) return;
+            try {
+                store.add(playerName, score, Math.max(0, Math.min(LeaderboardStore.MAX_DIFFICULTIES - 1, difficulty)), now);
+            } catch (IOException e) {
+                System.err.println("Error recording run: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * @return Where a score would place among every recorded run, or -1 if there is no leaderboard
+     */
+    public long getAllTimeRank(int score) {
+        LeaderboardStore store = leaderboard;
+        return store == null ? -1 : store.getRank(score);
+    }
+    
+    /**
+     * @return The all-time leaderboard, or null if it isn't open (yet)
+     */
+    public LeaderboardStore getLeaderboard() {
+        return leaderboard;
+    }
+    
+    private static LeaderboardStore leaderboardFor(String file) {
+        synchronized (LEADERBOARDS) {
+            if (LEADERBOARDS.containsKey(file)) {
+                return LEADERBOARDS.get(file);
+            }
+            LeaderboardStore store = null;
+            try {
+                store = LeaderboardStore.open(new File(file));
+            } catch (IOException | RuntimeException e) {
+                // The top scores still work without the all-time leaderboard
+                System.err.println("Error opening leaderboard " + file + ": " + e);
+            }
+            LEADERBOARDS.put(file, store);
+            return store;
+        }
+    }
+    
+    private static void closeLeaderboards() {
+        synchronized (LEADERBOARDS) {
+            for (LeaderboardStore store : LEADERBOARDS.values()) {
+                if (store == null) {
+                    continue;
+                }
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing leaderboard: " + e.getMessage());
+                }
+            }
+            LEADERBOARDS.clear();
+        }
+    }
+    
+    /**
+     * @return The current table, best first; unmodifiable and never changed afterwards
+     */
+    public List<HighScoreEntry> getHighScores() {
+        return highScores;
+    }
+    
+    public HighScoreEntry getHighestScore() {
+        List<HighScoreEntry> scores = highScores;
+        return scores.isEmpty() ? null : scores.get(0);
+    }
+    
+    /**
+     * Queues a save of the current table on the writer thread. Saves that
+     * pile up while one is being written collapse into one of the latest table.
+     */
+    private void saveHighScores(List<HighScoreEntry> snapshot) {
+        if (pendingSave.getAndSet(snapshot) != null) {
+            return;
+        }
+        
+        File file = new File(highScoreFile);
+        lastSave = CompletableFuture.runAsync(() -> {
+            List<HighScoreEntry> latest = pendingSave.getAndSet(null);
+            try {
+                writeAtomically(latest, file);
+            } catch (IOException e) {
+                System.err.println("Error saving high scores: " + e.getMessage());
+            }
+        }, WRITER);
+    }
+    
+    /**
+     * Waits until every queued save is on disk
+     */
+    public void flush() {
+        lastSave.join();
+    }
+    
+    private void loadHighScores() {
+        File file = new File(highScoreFile);
+        if (!file.exists()) {
+            return;
+        }
+        
+        try {
+            List<HighScoreEntry> loaded = read(file);
+            Collections.sort(loaded);
+            highScores = Collections.unmodifiableList(loaded);
+        } catch (IOException e) {
+            System.err.println("Error loading high scores: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Reads a score file in the binary format, or in the serialized format
+     * older versions wrote, which is replaced on the next save
+     */
+    static List<HighScoreEntry> read(File file) throws IOException {
+        byte[] data = Files.readAllBytes(file.toPath());
+        if (data.length >= 4 && ByteBuffer.wrap(data).getInt() == MAGIC) {
+            return decode(data);
+        }
+        return readLegacy(data);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static List<HighScoreEntry> readLegacy(byte[] data) throws IOException {
+        try (ObjectInputStream ois = new LegacyInputStream(new ByteArrayInputStream(data))) {
+            return new ArrayList<>((List<HighScoreEntry>) ois.readObject());
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unrecognised high score file", e);
+        }
+    }
+    
+    /**
+     * Also reads files from before the classes moved into a package
+     */
+    private static final class LegacyInputStream extends ObjectInputStream {
+        LegacyInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+        
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (desc.getName().equals("HighScoreManager$HighScoreEntry")) {
+                return HighScoreEntry.class;
+            }
+            return super.resolveClass(desc);
+        }
+    }
+    
+    static byte[] encode(List<HighScoreEntry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + entries.size() * 48);
+        CRC32 crc = new CRC32();
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(bytes, crc));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(entries.size());
+        for (HighScoreEntry entry : entries) {
+            out.writeUTF(entry.playerName);
+            out.writeInt(entry.score);
+            out.writeInt(entry.difficulty);
+            out.writeUTF(entry.difficultyName == null ? "" : entry.difficultyName);
+            out.writeUTF(entry.date == null ? "" : entry.date);
+        }
+        
+        out.flush();
+        new DataOutputStream(bytes).writeInt((int) crc.getValue());
+        return bytes.toByteArray();
+    }
+    
+    static List<HighScoreEntry> decode(byte[] data) throws IOException {
+        if (data.length < 12) {
+            throw new IOException("High score file is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        if (ByteBuffer.wrap(data).getInt(data.length - 4) != (int) crc.getValue()) {
+            throw new IOException("High score file is corrupt");
+        }
+        
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 4, data.length - 8));
+        int version = in.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported high score file version " + version);
+        }
+        int count = in.readUnsignedShort();
+        List<HighScoreEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String playerName = in.readUTF();
+            int score = in.readInt();
+            int difficulty = in.readInt();
+            String difficultyName = in.readUTF();
+            entries.add(new HighScoreEntry(playerName, score, difficulty, difficultyName, in.readUTF()));
+        }
+        return entries;
+    }
+    
+    /**
+     * Writes to a temporary file next to the target, forces it to disk and
+     * moves it over the target, so a crash leaves either the old file or
+     * the new one, never half of one
+     */
+    static void writeAtomically(List<HighScoreEntry> entries, File file) throws IOException {
+        Path target = file.getAbsoluteFile().toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(encode(entries)));
+            channel.force(true);
+        }
+        
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    public synchronized void clearHighScores() {
+        notifyListeners(publish(new ArrayList<>()));
+    }
+}
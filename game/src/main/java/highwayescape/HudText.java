@@ -0,0 +1,180 @@
+package highwayescape;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * HUD text without per-frame fonts, strings or layout. A Style derives its
+ * font and metrics once; a Label keeps its text and width and only
+ * re-measures when the text changes; a Counter keeps the formatted text of
+ * the number it last drew, so the score is formatted about ten times a
+ * second (as often as it changes) rather than on every frame.
+ *
+ * Glyphs themselves come from Java2D's glyph cache, which is already an
+ * atlas of rasterized glyphs and only touches the pixels they cover.
+ * Blitting whole pre-rendered label images was measured slower than that
+ * on the software loops.
+ *
+ * Glyph advances are whole pixels (no fractional metrics or kerning), so a
+ * label followed by a counter lands exactly where drawString would put the
+ * concatenated string. Only for use on the rendering thread.
+ */
+public class HudText {
+    private HudText() {
+    }
+    
+    /**
+     * A font and color with the metrics measured once
+     */
+    public static final class Style {
+        private final Font font;
+        private final Color color;
+        private final FontMetrics metrics;
+        
+        /**
+         * Constructor for Style
+         * @param font Font to draw with
+         * @param color Text color, may be translucent
+         */
+        public Style(Font font, Color color) {
+            this.font = font;
+            this.color = color;
+            // Measured antialiased, as the game draws text
+            Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            this.metrics = g.getFontMetrics(font);
+            g.dispose();
+        }
+        
+        /**
+         * Sets the font and color, unless already set; setFont drops Java2D's cached font state
+         */
+        private void apply(Graphics2D g2d) {
+            if (g2d.getFont() != font) {
+                g2d.setFont(font);
+            }
+            if (g2d.getColor() != color) {
+                g2d.setColor(color);
+            }
+        }
+        
+        // Getters
+        public Font getFont() { return font; }
+        public Color getColor() { return color; }
+        public int stringWidth(String text) { return metrics.stringWidth(text); }
+    }
+    
+    /**
+     * A piece of text with its width kept between frames
+     */
+    public static final class Label {
+        private final Style style;
+        private String text;
+        private int width;
+        private int layouts;
+        
+        /**
+         * Constructor for Label
+         * @param style Style to draw with
+         * @param text Initial text
+         */
+        public Label(Style style, String text) {
+            this.style = style;
+            setText(text);
+        }
+        
+        /**
+         * Changes the text, re-measuring only if it differs from the current text
+         */
+        public void setText(String text) {
+            if (text.equals(this.text)) {
+                return;
+            }
+            this.text = text;
+            this.width = style.stringWidth(text);
+            layouts++;
+        }
+        
+        /**
+         * Draws the label with its baseline at y, like drawString
+         */
+        public void draw(Graphics2D g2d, int x, int y) {
+            style.apply(g2d);
+            g2d.drawString(text, x, y);
+        }
+        
+        // Getters
+        public String getText() { return text; }
+        public int getWidth() { return width; }
+        public int getLayouts() { return layouts; }
+    }
+    
+    /**
+     * A number, or "value/max", that keeps its formatted text until the value changes
+     */
+    public static final class Counter {
+        private final Style style;
+        private long value = -1, max = -1;
+        private String text;
+        private int width;
+        private int layouts;
+        
+        /**
+         * Constructor for Counter
+         * @param style Style to draw with
+         */
+        public Counter(Style style) {
+            this.style = style;
+        }
+        
+        /**
+         * Draws a non-negative number with its baseline at y
+         * @return x after the last digit, for drawing what follows
+         */
+        public int draw(Graphics2D g2d, long value, int x, int y) {
+            return drawFraction(g2d, value, -1, x, y);
+        }
+        
+        /**
+         * Draws "value/max", as in the lives counter
+         * @param max Denominator, or -1 for just the value
+         * @return x after the last digit
+         */
+        public int drawFraction(Graphics2D g2d, long value, long max, int x, int y) {
+            update(value, max);
+            style.apply(g2d);
+            g2d.drawString(text, x, y);
+            return x + width;
+        }
+        
+        /**
+         * @return Width draw() covers for the value
+         */
+        public int measure(long value) {
+            update(value, -1);
+            return width;
+        }
+        
+        private void update(long value, long max) {
+            if (value == this.value && max == this.max) {
+                return;
+            }
+            if (value < 0) {
+                throw new IllegalArgumentException("Negative value: " + value);
+            }
+            this.value = value;
+            this.max = max;
+            text = max < 0 ? Long.toString(value) : value + "/" + max;
+            width = style.stringWidth(text);
+            layouts++;
+        }
+        
+        // Getters
+        public String getText() { return text; }
+        public int getLayouts() { return layouts; }
+    }
+}
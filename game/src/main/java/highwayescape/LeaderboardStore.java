@@ -0,0 +1,523 @@
+package highwayescape;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every run ever played, kept in a memory-mapped file and indexed so that
+ * rank, top-K, per-difficulty and per-player queries stay logarithmic
+ * however many runs there are. Nothing but the player names is held on
+ * the heap.
+ *
+ * Runs are fixed-size records that are never moved. Each record is a node
+ * in two treaps (randomised balanced trees) ordered by score, highest
+ * first, then by age: one over every run and one over the runs at the
+ * same difficulty. Every node stores the size of its subtree, so the
+ * number of runs ahead of a score is one walk from the root.
+ *
+ * Player names live in a second file, each with the index of their best
+ * run. The index is marked dirty while the store is open; if the game
+ * dies without closing it, the trees are rebuilt from the records on the
+ * next open.
+ */
+public class LeaderboardStore implements Closeable {
+    public static final int MAX_DIFFICULTIES = 64;
+    public static final int MAX_NAME_BYTES = 55;
+    
+    private static final int NIL = -1;
+    private static final int GLOBAL = 0;
+    private static final int BY_DIFFICULTY = 1;
+    
+    // Runs file header
+    private static final int RUNS_MAGIC = 0x48454C42; // "HELB"
+    private static final int PLAYERS_MAGIC = 0x48454C50; // "HELP"
+    private static final int VERSION = 1;
+    private static final int H_COUNT = 8;
+    private static final int H_CLEAN = 12;
+    private static final int H_RANDOM = 16;
+    private static final int H_ROOTS = 24; // GLOBAL root, then one per difficulty
+    private static final int HEADER_BYTES = 4096;
+    
+    // Run record
+    private static final int R_SCORE = 0;
+    private static final int R_DIFFICULTY = 4;
+    private static final int R_PLAYER = 8;
+    private static final int R_PRIORITY = 12;
+    private static final int R_TIME = 16;
+    private static final int R_LINKS = 24; // left, right, size for each tree
+    private static final int LINK_BYTES = 12;
+    private static final int RECORD_BYTES = R_LINKS + 2 * LINK_BYTES;
+    
+    // Player record: name length, UTF-8 name, best run
+    private static final int PLAYER_HEADER_BYTES = 64;
+    private static final int P_BEST = 56;
+    private static final int PLAYER_BYTES = 64;
+    
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    private final RandomAccessFile runsFile;
+    private final RandomAccessFile playersFile;
+    private MappedByteBuffer runs;
+    private MappedByteBuffer players;
+    private int capacity;
+    private int playerCapacity;
+    private int count;
+    private final List<String> playerNames = new ArrayList<>();
+    private final Map<String, Integer> playerIds = new HashMap<>();
+    private int[] stack = new int[128];
+    
+    /**
+     * One run as read back from the store
+     */
+    public static final class Entry {
+        private final String playerName;
+        private final int score;
+        private final int difficulty;
+        private final long timeMillis;
+        
+        Entry(String playerName, int score, int difficulty, long timeMillis) {
+            this.playerName = playerName;
+            this.score = score;
+            this.difficulty = difficulty;
+            this.timeMillis = timeMillis;
+        }
+        
+        // Getters
+        public String getPlayerName() { return playerName; }
+        public int getScore() { return score; }
+        public int getDifficulty() { return difficulty; }
+        public long getTimeMillis() { return timeMillis; }
+        
+        @Override
+        public String toString() {
+            return playerName + " - " + score + " (Level " + difficulty + ")";
+        }
+    }
+    
+    private LeaderboardStore(RandomAccessFile runsFile, RandomAccessFile playersFile) {
+        this.runsFile = runsFile;
+        this.playersFile = playersFile;
+    }
+    
+    /**
+     * Opens a store, creating it if it doesn't exist. Player names are kept
+     * next to it in a file with ".players" appended.
+     */
+    public static LeaderboardStore open(File file) throws IOException {
+        File playersPath = new File(file.getPath() + ".players");
+        LeaderboardStore store = new LeaderboardStore(new RandomAccessFile(file, "rw"),
+            new RandomAccessFile(playersPath, "rw"));
+        try {
+            store.load();
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+    
+    private void load() throws IOException {
+        boolean created = runsFile.length() == 0;
+        if (created) {
+            runs = map(runsFile, HEADER_BYTES + (long) INITIAL_CAPACITY * RECORD_BYTES);
+            runs.putInt(0, RUNS_MAGIC);
+            runs.putInt(4, VERSION);
+            runs.putInt(H_COUNT, 0);
+            runs.putLong(H_RANDOM, 0x2545F4914F6CDD1DL);
+            for (int t = 0; t <= MAX_DIFFICULTIES; t++) {
+                runs.putInt(H_ROOTS + t * 4, NIL);
+            }
+            
+            players = map(playersFile, PLAYER_HEADER_BYTES + (long) INITIAL_CAPACITY * PLAYER_BYTES);
+            players.putInt(0, PLAYERS_MAGIC);
+            players.putInt(4, VERSION);
+            players.putInt(H_COUNT, 0);
+        } else {
+            if (runsFile.length() < HEADER_BYTES || playersFile.length() < PLAYER_HEADER_BYTES) {
+                throw new IOException("Leaderboard is truncated");
+            }
+            runs = map(runsFile, runsFile.length());
+            players = map(playersFile, playersFile.length());
+            if (runs.getInt(0) != RUNS_MAGIC || players.getInt(0) != PLAYERS_MAGIC) {
+                throw new IOException("Not a leaderboard store");
+            }
+            if (runs.getInt(4) != VERSION || players.getInt(4) != VERSION) {
+                throw new IOException("Unsupported leaderboard version");
+            }
+        }
+        capacity = (runs.capacity() - HEADER_BYTES) / RECORD_BYTES;
+        playerCapacity = (players.capacity() - PLAYER_HEADER_BYTES) / PLAYER_BYTES;
+        count = runs.getInt(H_COUNT);
+        int playerCount = players.getInt(H_COUNT);
+        if (count < 0 || count > capacity || playerCount < 0 || playerCount > playerCapacity) {
+            throw new IOException("Leaderboard is truncated");
+        }
+        
+        for (int id = 0; id < playerCount; id++) {
+            String name = readName(id);
+            playerNames.add(name);
+            playerIds.put(name, id);
+        }
+        
+        if (!created && runs.getInt(H_CLEAN) == 0) {
+            System.err.println("Leaderboard was not closed cleanly, rebuilding its index");
+            rebuild();
+        }
+        runs.putInt(H_CLEAN, 0);
+    }
+    
+    private static MappedByteBuffer map(RandomAccessFile file, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Leaderboard file is full");
+        }
+        if (file.length() < size) {
+            file.setLength(size);
+        }
+        return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+    
+    /**
+     * Records a run
+     * @return The run's rank among all runs, 1 being the best
+     */
+    public synchronized long add(String playerName, int score, int difficulty, long timeMillis) throws IOException {
+        checkDifficulty(difficulty);
+        if (count == capacity) {
+            growRuns();
+        }
+        int player = playerId(playerName);
+        
+        int node = count;
+        int base = offset(node);
+        runs.putInt(base + R_SCORE, score);
+        runs.putInt(base + R_DIFFICULTY, difficulty);
+        runs.putInt(base + R_PLAYER, player);
+        runs.putInt(base + R_PRIORITY, nextPriority());
+        runs.putLong(base + R_TIME, timeMillis);
+        link(node);
+        
+        // Counted last, so a run only exists once it is fully written
+        count++;
+        runs.putInt(H_COUNT, count);
+        return getRank(score);
+    }
+    
+    /**
+     * Inserts a written record into both trees and its player's best
+     */
+    private void link(int node) {
+        for (int t = GLOBAL; t <= BY_DIFFICULTY; t++) {
+            setLeft(node, t, NIL);
+            setRight(node, t, NIL);
+            setSize(node, t, 1);
+        }
+        int rootSlot = rootSlot(runs.getInt(offset(node) + R_DIFFICULTY) + 1);
+        runs.putInt(H_ROOTS, insert(runs.getInt(H_ROOTS), node, GLOBAL));
+        runs.putInt(rootSlot, insert(runs.getInt(rootSlot), node, BY_DIFFICULTY));
+        
+        int player = runs.getInt(offset(node) + R_PLAYER);
+        int best = players.getInt(playerOffset(player) + P_BEST);
+        if (best == NIL || before(node, best)) {
+            players.putInt(playerOffset(player) + P_BEST, node);
+        }
+    }
+    
+    private int insert(int root, int node, int tree) {
+        if (root == NIL) {
+            return node;
+        }
+        setSize(root, tree, size(root, tree) + 1);
+        if (before(node, root)) {
+            setLeft(root, tree, insert(left(root, tree), node, tree));
+            if (priority(left(root, tree)) > priority(root)) {
+                root = rotateRight(root, tree);
+            }
+        } else {
+            setRight(root, tree, insert(right(root, tree), node, tree));
+            if (priority(right(root, tree)) > priority(root)) {
+                root = rotateLeft(root, tree);
+            }
+        }
+        return root;
+    }
+    
+    private int rotateRight(int node, int tree) {
+        int child = left(node, tree);
+        setLeft(node, tree, right(child, tree));
+        setRight(child, tree, node);
+        setSize(child, tree, size(node, tree));
+        setSize(node, tree, 1 + sizeOf(left(node, tree), tree) + sizeOf(right(node, tree), tree));
+        return child;
+    }
+    
+    private int rotateLeft(int node, int tree) {
+        int child = right(node, tree);
+        setRight(node, tree, left(child, tree));
+        setLeft(child, tree, node);
+        setSize(child, tree, size(node, tree));
+        setSize(node, tree, 1 + sizeOf(left(node, tree), tree) + sizeOf(right(node, tree), tree));
+        return child;
+    }
+    
+    /**
+     * Whether run a ranks ahead of run b: higher score, or the same score set earlier
+     */
+    private boolean before(int a, int b) {
+        int scoreA = score(a);
+        int scoreB = score(b);
+        return scoreA > scoreB || (scoreA == scoreB && a < b);
+    }
+    
+    /**
+     * @return 1 plus the number of runs with a higher score
+     */
+    public synchronized long getRank(int score) {
+        return rank(runs.getInt(H_ROOTS), score, GLOBAL);
+    }
+    
+    /**
+     * @return 1 plus the number of runs at this difficulty with a higher score
+     */
+    public synchronized long getRank(int score, int difficulty) {
+        checkDifficulty(difficulty);
+        return rank(runs.getInt(rootSlot(difficulty + 1)), score, BY_DIFFICULTY);
+    }
+    
+    private long rank(int node, int score, int tree) {
+        long ahead = 0;
+        while (node != NIL) {
+            if (score(node) > score) {
+                ahead += 1 + sizeOf(left(node, tree), tree);
+                node = right(node, tree);
+            } else {
+                node = left(node, tree);
+            }
+        }
+        return ahead + 1;
+    }
+    
+    /**
+     * @return The best k runs, best first
+     */
+    public synchronized List<Entry> getTop(int k) {
+        return top(runs.getInt(H_ROOTS), k, GLOBAL);
+    }
+    
+    /**
+     * @return The best k runs at a difficulty, best first
+     */
+    public synchronized List<Entry> getTop(int k, int difficulty) {
+        checkDifficulty(difficulty);
+        return top(runs.getInt(rootSlot(difficulty + 1)), k, BY_DIFFICULTY);
+    }
+    
+    /**
+     * In-order walk that stops after k nodes, so it costs the tree's depth plus k
+     */
+    private List<Entry> top(int root, int k, int tree) {
+        List<Entry> result = new ArrayList<>(Math.max(0, Math.min(k, 1024)));
+        int depth = 0;
+        int node = root;
+        while ((node != NIL || depth > 0) && result.size() < k) {
+            while (node != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left(node, tree);
+            }
+            node = stack[--depth];
+            result.add(entry(node));
+            node = right(node, tree);
+        }
+        return result;
+    }
+    
+    /**
+     * @return The player's best run, or null if they have none
+     */
+    public synchronized Entry getPlayerBest(String playerName) {
+        Integer player = playerIds.get(normalise(playerName));
+        if (player == null) {
+            return null;
+        }
+        int best = players.getInt(playerOffset(player) + P_BEST);
+        return best == NIL ? null : entry(best);
+    }
+    
+    public synchronized int size() {
+        return count;
+    }
+    
+    /**
+     * @return Number of runs at a difficulty
+     */
+    public synchronized int size(int difficulty) {
+        checkDifficulty(difficulty);
+        return sizeOf(runs.getInt(rootSlot(difficulty + 1)), BY_DIFFICULTY);
+    }
+    
+    public synchronized int getPlayerCount() {
+        return playerNames.size();
+    }
+    
+    /**
+     * Writes everything to disk
+     */
+    public synchronized void flush() {
+        runs.force();
+        players.force();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (runs != null) {
+            players.force();
+            runs.force();
+            runs.putInt(H_CLEAN, 1);
+            runs.force();
+            runs = null;
+            players = null;
+        }
+        runsFile.close();
+        playersFile.close();
+    }
+    
+    /**
+     * Relinks every record from scratch, after an unclean shutdown
+     */
+    private void rebuild() throws IOException {
+        // Records are linked as they stand, so check what they point at first
+        for (int node = 0; node < count; node++) {
+            int difficulty = runs.getInt(offset(node) + R_DIFFICULTY);
+            int player = runs.getInt(offset(node) + R_PLAYER);
+            if (difficulty < 0 || difficulty >= MAX_DIFFICULTIES || player < 0 || player >= playerNames.size()) {
+                throw new IOException("Leaderboard is corrupt");
+            }
+        }
+        
+        runs.putInt(H_ROOTS, NIL);
+        for (int difficulty = 0; difficulty < MAX_DIFFICULTIES; difficulty++) {
+            runs.putInt(rootSlot(difficulty + 1), NIL);
+        }
+        for (int player = 0; player < playerNames.size(); player++) {
+            players.putInt(playerOffset(player) + P_BEST, NIL);
+        }
+        for (int node = 0; node < count; node++) {
+            link(node);
+        }
+    }
+    
+    private int playerId(String playerName) throws IOException {
+        String name = normalise(playerName);
+        Integer existing = playerIds.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        
+        int id = playerNames.size();
+        if (id == playerCapacity) {
+            playerCapacity *= 2;
+            players = map(playersFile, PLAYER_HEADER_BYTES + (long) playerCapacity * PLAYER_BYTES);
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int base = playerOffset(id);
+        players.put(base, (byte) bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            players.put(base + 1 + i, bytes[i]);
+        }
+        players.putInt(base + P_BEST, NIL);
+        players.putInt(H_COUNT, id + 1);
+        
+        playerNames.add(name);
+        playerIds.put(name, id);
+        return id;
+    }
+    
+    /**
+     * Trims a name and shortens it to what fits in a player record
+     */
+    private static String normalise(String playerName) {
+        String name = playerName == null || playerName.trim().isEmpty() ? "Anonymous" : playerName.trim();
+        while (name.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES) {
+            name = name.substring(0, name.length() - 1);
+        }
+        return name;
+    }
+    
+    private String readName(int id) throws IOException {
+        int base = playerOffset(id);
+        int length = players.get(base) & 0xFF;
+        if (length > MAX_NAME_BYTES) {
+            throw new IOException("Leaderboard is corrupt");
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = players.get(base + 1 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private void growRuns() throws IOException {
+        int grown = (int) Math.min((Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES, (long) capacity * 2);
+        if (grown <= capacity) {
+            throw new IOException("Leaderboard file is full");
+        }
+        runs = map(runsFile, HEADER_BYTES + (long) grown * RECORD_BYTES);
+        capacity = grown;
+    }
+    
+    private int nextPriority() {
+        // xorshift64, kept in the header so priorities stay random across sessions
+        long x = runs.getLong(H_RANDOM);
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        runs.putLong(H_RANDOM, x);
+        return (int) (x >>> 33);
+    }
+    
+    private Entry entry(int node) {
+        int base = offset(node);
+        return new Entry(playerNames.get(runs.getInt(base + R_PLAYER)), runs.getInt(base + R_SCORE),
+            runs.getInt(base + R_DIFFICULTY), runs.getLong(base + R_TIME));
+    }
+    
+    private static void checkDifficulty(int difficulty) {
+        if (difficulty < 0 || difficulty >= MAX_DIFFICULTIES) {
+            throw new IllegalArgumentException("Difficulty out of range: " + difficulty);
+        }
+    }
+    
+    private static int offset(int node) {
+        return HEADER_BYTES + node * RECORD_BYTES;
+    }
+    
+    private static int playerOffset(int player) {
+        return PLAYER_HEADER_BYTES + player * PLAYER_BYTES;
+    }
+    
+    private static int rootSlot(int tree) {
+        return H_ROOTS + tree * 4;
+    }
+    
+    private int score(int node) { return runs.getInt(offset(node) + R_SCORE); }
+    private int priority(int node) { return runs.getInt(offset(node) + R_PRIORITY); }
+    private int left(int node, int tree) { return runs.getInt(offset(node) + R_LINKS + tree * LINK_BYTES); }
+    private int right(int node, int tree) { return runs.getInt(offset(node) + R_LINKS + tree * LINK_BYTES + 4); }
+    private int size(int node, int tree) { return runs.getInt(offset(node) + R_LINKS + tree * LINK_BYTES + 8); }
+    private int sizeOf(int node, int tree) { return node == NIL ? 0 : size(node, tree); }
+    private void setLeft(int node, int tree, int value) { runs.putInt(offset(node) + R_LINKS + tree * LINK_BYTES, value); }
+    private void setRight(int node, int tree, int value) { runs.putInt(offset(node) + R_LINKS + tree * LINK_BYTES + 4, value); }
+    private void setSize(int node, int tree, int value) { runs.putInt(offset(node) + R_LINKS + tree * LINK_BYTES + 8, value); }
+}
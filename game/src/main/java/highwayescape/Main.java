@@ -1,28 +1,65 @@
+package highwayescape;
+
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.function.Supplier;
 import javax.imageio.ImageIO;
 
 public class Main {
+    // Print loading times and internal statistics, for profiling
+    static final boolean PRINT_STATS = Boolean.getBoolean("highway.stats");
+    
     public static void main(String[] args) {
-        // Create assets directories
-        createDirectories();
+        GamePanel.RenderMode renderMode = parseRenderMode(args);
         
-        // Create default assets if missing
-        createDefaultAssets();
+        prepareAssets();
         
-        // Initialize sound system
-        SoundManager.getInstance();
+        // Start decoding images and opening sounds in the background
+        AssetPreloader.getInstance().start();
         
         // Start game
         javax.swing.SwingUtilities.invokeLater(() -> {
-            GameFrame gameFrame = new GameFrame();
+            GameFrame gameFrame = new GameFrame(renderMode);
             gameFrame.setVisible(true);
         });
     }
     
+    /**
+     * Picks the render mode from --render=active|passive, falling back to
+     * the highway.render system property and then to passive rendering
+     */
+    private static GamePanel.RenderMode parseRenderMode(String[] args) {
+        String mode = System.getProperty("highway.render", "passive");
+        for (String arg : args) {
+            if (arg.startsWith("--render=")) {
+                mode = arg.substring("--render=".length());
+            }
+        }
+        
+        try {
+            GamePanel.RenderMode renderMode = GamePanel.RenderMode.valueOf(mode.trim().toUpperCase());
+            System.out.println("Render mode: " + renderMode);
+            return renderMode;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown render mode '" + mode + "', using passive rendering");
+            return GamePanel.RenderMode.PASSIVE;
+        }
+    }
+    
+    /**
+     * Creates the assets directories and default sprites for any that are missing
+     */
+    static void prepareAssets() {
+        // Create assets directories
+        createDirectories();
+        
+        // Create default assets if missing
+        createDefaultAssets();
+    }
+    
     private static void createDirectories() {
         new File("assets").mkdirs();
         new File("assets/sounds").mkdirs();
@@ -30,18 +67,26 @@ public class Main {
     }
     
     private static void createDefaultAssets() {
-        createDefaultAssetIfMissing("road.png", createDefaultRoadImage());
-        createDefaultAssetIfMissing("player_car.png", createDefaultPlayerCarImage());
-        createDefaultAssetIfMissing("enemy_car.png", createDefaultEnemyCarImage());
-        createDefaultAssetIfMissing("truck_cab.png", createDefaultTruckCabImage());
-        createDefaultAssetIfMissing("truck_trailer.png", createDefaultTruckTrailerImage());
+        createDefaultAssetIfMissing("road.png", Main::createDefaultRoadImage);
+        createDefaultAssetIfMissing("player_car.png", Main::createDefaultPlayerCarImage);
+        createDefaultAssetIfMissing("enemy_car.png", Main::createDefaultEnemyCarImage);
+        createDefaultAssetIfMissing("truck_cab.png", Main::createDefaultTruckCabImage);
+        createDefaultAssetIfMissing("truck_trailer.png", Main::createDefaultTruckTrailerImage);
     }
     
-    private static void createDefaultAssetIfMissing(String filename, BufferedImage image) {
-        File file = new File("assets/" + filename);
+    private static void createDefaultAssetIfMissing(String filename, Supplier<BufferedImage> image) {
+        String path = "assets/" + filename;
+        
+        // Sprites in the asset pack never touch the loose file
+        AssetPack pack = AssetLoader.getAssetPack();
+        if (pack != null && pack.hasImage(path)) {
+            return;
+        }
+        
+        File file = new File(path);
         if (!file.exists()) {
             try {
-                ImageIO.write(image, "PNG", file);
+                ImageIO.write(image.get(), "PNG", file);
                 System.out.println("Created default " + filename);
             } catch (IOException e) {
                 System.err.println("Failed to create " + filename + ": " + e.getMessage());
@@ -0,0 +1,299 @@
+package highwayescape;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import javax.sound.sampled.*;
+
+/**
+ * Plays a music track by streaming it, so only a small ring buffer of
+ * audio is ever on the heap however long the track is. A reader thread
+ * decodes the track into the ring, reopening it at the end when looping,
+ * and a player thread drains the ring into the sink. If the ring runs dry
+ * the player writes silence instead and counts an underrun.
+ */
+public class MusicStreamer {
+    public static final int DEFAULT_RING_BYTES = 256 * 1024;
+    private static final int CHUNK_BYTES = 4096;
+    
+    private final String path;
+    private final AudioFormat format;
+    private AudioMixer.Sink sink;
+    private final byte[] ring;
+    private final Object lock = new Object();
+    private int readPosition;
+    private int writePosition;
+    private int buffered;
+    private boolean ended;
+    private boolean paused;
+    private volatile boolean running;
+    private volatile float gain = 1f;
+    private volatile long underruns;
+    private volatile long bytesPlayed;
+    private Thread reader;
+    private Thread player;
+    
+    /**
+     * Constructor for MusicStreamer
+     * @param path Track to play, read from the asset pack if it holds it and from disk otherwise
+     * @param ringBytes Size of the buffer between the reader and the player
+     */
+    public MusicStreamer(String path, int ringBytes) throws IOException, UnsupportedAudioFileException {
+        this.path = path;
+        try (AudioInputStream stream = openStream(path)) {
+            this.format = stream.getFormat();
+        }
+        // Whole frames only, so a wrap never splits one
+        int frameSize = format.getFrameSize();
+        this.ring = new byte[Math.max(CHUNK_BYTES * 2, ringBytes) / frameSize * frameSize];
+    }
+    
+    /**
+     * Opens a track as 16-bit signed little-endian PCM at its own rate
+     */
+    public static AudioInputStream openStream(String path) throws IOException, UnsupportedAudioFileException {
+        AudioInputStream stream;
+        AssetPack pack = AssetLoader.getAssetPack();
+        if (pack != null && pack.hasSound(path)) {
+            stream = pack.openSound(path);
+        } else {
+            stream = AudioSystem.getAudioInputStream(new File(path));
+        }
+        
+        AudioFormat pcm16 = playbackFormat(stream.getFormat());
+        return stream.getFormat().matches(pcm16) ? stream : AudioSystem.getAudioInputStream(pcm16, stream);
+    }
+    
+    /**
+     * @return The format a track is played in
+     */
+    public static AudioFormat playbackFormat(AudioFormat source) {
+        return new AudioFormat(source.getSampleRate(), 16, source.getChannels(), true, false);
+    }
+    
+    /**
+     * Starts the reader and player threads
+     * @param sink Destination, which must accept getFormat(); closed along with the streamer
+     * @param loop Whether to start over at the end of the track
+     */
+    public synchronized void start(AudioMixer.Sink sink, boolean loop) {
+        if (running) return;
+        
+        this.sink = sink;
+        running = true;
+        reader = new Thread(() -> read(loop), "music-reader");
+        reader.setDaemon(true);
+        reader.start();
+        
+        player = new Thread(this::play, "music-player");
+        player.setDaemon(true);
+        player.setPriority(Thread.MAX_PRIORITY);
+        player.start();
+    }
+    
+    private void read(boolean loop) {
+        byte[] chunk = new byte[CHUNK_BYTES];
+        AudioInputStream stream = null;
+        try {
+            stream = openStream(path);
+            while (running) {
+                int count = stream.read(chunk);
+                if (count < 0) {
+                    stream.close();
+                    stream = null;
+                    if (!loop) break;
+                    
+                    // The next pass goes into the same ring, so the loop point has no gap
+                    stream = openStream(path);
+                    continue;
+                }
+                if (count > 0) {
+                    put(chunk, count);
+                }
+            }
+        } catch (IOException | UnsupportedAudioFileException e) {
+            System.err.println("Music stream failed: " + path + " - " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    // Ignore errors
+                }
+            }
+            synchronized (lock) {
+                ended = true;
+                lock.notifyAll();
+            }
+        }
+    }
+    
+    private void put(byte[] chunk, int count) throws InterruptedException {
+        synchronized (lock) {
+            while (running && ring.length - buffered < count) {
+                lock.wait();
+            }
+            if (!running) return;
+            
+            int first = Math.min(count, ring.length - writePosition);
+            System.arraycopy(chunk, 0, ring, writePosition, first);
+            System.arraycopy(chunk, first, ring, 0, count - first);
+            writePosition = (writePosition + count) % ring.length;
+            buffered += count;
+            lock.notifyAll();
+        }
+    }
+    
+    private void play() {
+        byte[] chunk = new byte[CHUNK_BYTES];
+        int frameSize = format.getFrameSize();
+        long chunkNanos = (long) (CHUNK_BYTES / frameSize * 1e9 / format.getSampleRate());
+        long next = 0;
+        try {
+            // Let the reader get ahead before the first write
+            synchronized (lock) {
+                while (running && !ended && buffered < ring.length / 2) {
+                    lock.wait();
+                }
+            }
+            next = System.nanoTime();
+            
+            while (running) {
+                int count;
+                synchronized (lock) {
+                    if (paused) {
+                        while (running && paused) {
+                            lock.wait();
+                        }
+                        // Pacing carries on from now, not from before the pause
+                        next = System.nanoTime();
+                    }
+                    if (!running) break;
+                    if (buffered == 0 && ended) break;
+                    
+                    count = Math.min(CHUNK_BYTES, buffered);
+                    int first = Math.min(count, ring.length - readPosition);
+                    System.arraycopy(ring, readPosition, chunk, 0, first);
+                    System.arraycopy(ring, 0, chunk, first, count - first);
+                    readPosition = (readPosition + count) % ring.length;
+                    buffered -= count;
+                    lock.notifyAll();
+                }
+                
+                if (count == 0) {
+                    // Keep the device fed rather than letting it click
+                    underruns++;
+                    count = CHUNK_BYTES;
+                    Arrays.fill(chunk, (byte) 0);
+                } else {
+                    applyGain(chunk, count);
+                    bytesPlayed += count;
+                }
+                sink.write(chunk, count);
+                
+                if (!sink.isRealtime()) {
+                    next += chunkNanos * count / CHUNK_BYTES;
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Music output failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void applyGain(byte[] chunk, int count) {
+        float gain = this.gain;
+        if (gain == 1f) return;
+        
+        int scale = (int) (gain * 4096);
+        for (int i = 0; i + 1 < count; i += 2) {
+            int sample = (short) ((chunk[i] & 0xFF) | (chunk[i + 1] << 8));
+            sample = (sample * scale) >> 12;
+            if (sample > Short.MAX_VALUE) sample = Short.MAX_VALUE;
+            else if (sample < Short.MIN_VALUE) sample = Short.MIN_VALUE;
+            chunk[i] = (byte) sample;
+            chunk[i + 1] = (byte) (sample >> 8);
+        }
+    }
+    
+    /**
+     * Holds playback where it is; resume() carries on from the same point
+     */
+    public void pause() {
+        synchronized (lock) {
+            paused = true;
+        }
+    }
+    
+    public void resume() {
+        synchronized (lock) {
+            paused = false;
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Stops both threads and closes the sink
+     */
+    public void close() {
+        Thread readerThread;
+        Thread playerThread;
+        synchronized (this) {
+            running = false;
+            readerThread = reader;
+            playerThread = player;
+            reader = null;
+            player = null;
+        }
+        // Wakes the player out of its pacing sleep too
+        if (readerThread != null) readerThread.interrupt();
+        if (playerThread != null) playerThread.interrupt();
+        try {
+            if (readerThread != null) readerThread.join(1000);
+            if (playerThread != null) playerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (sink != null) {
+            sink.close();
+        }
+    }
+    
+    /**
+     * @return Whether the track is still playing or paused, rather than finished or closed
+     */
+    public boolean isPlaying() {
+        Thread playerThread;
+        synchronized (this) {
+            playerThread = player;
+        }
+        return playerThread != null && playerThread.isAlive();
+    }
+    
+    public boolean isPaused() {
+        synchronized (lock) {
+            return paused;
+        }
+    }
+    
+    /**
+     * @param gain Linear volume, 1 = as recorded
+     */
+    public void setGain(float gain) {
+        this.gain = Math.max(0f, Math.min(4f, gain));
+    }
+    
+    // Getters
+    public AudioFormat getFormat() { return format; }
+    public int getRingBytes() { return ring.length; }
+    public long getUnderruns() { return underruns; }
+    public long getBytesPlayed() { return bytesPlayed; }
+}
@@ -0,0 +1,211 @@
+package highwayescape;
+
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * Particle effects stored as parallel primitive arrays. Live particles are
+ * kept packed at the front of the arrays; a dead particle is replaced by the
+ * last live one, so removal is O(1) and nothing is allocated per frame.
+ *
+ * The pool has a hard capacity. When it is full, newly requested particles
+ * are dropped (existing effects are never cut short) and counted in
+ * getDroppedCount().
+ */
+public class ParticleSystem {
+    public static final int DEFAULT_CAPACITY = 2048;
+    
+    private static final int PARTICLE_SIZE = 4;
+    private static final int SMOKE_SIZE = 6;
+    private static final int TICK_MILLIS = 16;
+    private static final Color SMOKE_COLOR = new Color(100, 100, 100, 150);
+    
+    // Colors are drawn from pre-built alpha ramps so draw() never creates a Color
+    private static final int ALPHA_STEPS = 32;
+    private static final int MAX_COLORS = 32;
+    
+    private final int capacity;
+    private final float[] x, y, vx, vy, size;
+    private final int[] life, maxLife;
+    private final int[] color;
+    private final boolean[] smoke;
+    private int count;
+    private long dropped;
+    
+    private final int[] paletteArgb = new int[MAX_COLORS];
+    private final Color[][] paletteRamps = new Color[MAX_COLORS][];
+    private int paletteSize;
+    
+    private Random random;
+    
+    public ParticleSystem() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor for ParticleSystem
+     * @param capacity Maximum number of live particles
+     */
+    public ParticleSystem(int capacity) {
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        size = new float[capacity];
+        life = new int[capacity];
+        maxLife = new int[capacity];
+        color = new int[capacity];
+        smoke = new boolean[capacity];
+        random = new Random();
+    }
+    
+    public void update() {
+        int i = 0;
+        while (i < count) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+            vy[i] += 0.1f;
+            life[i] += TICK_MILLIS;
+            
+            if (smoke[i]) {
+                vx[i] *= 0.98f;
+                vy[i] *= 0.98f;
+            }
+            
+            if (life[i] >= maxLife[i]) {
+                // Swap-remove: the last particle takes this slot and is updated next
+                remove(i);
+            } else {
+                i++;
+            }
+        }
+    }
+    
+    public void draw(Graphics2D g2d) {
+        for (int i = 0; i < count; i++) {
+            float alpha = 1.0f - (float) life[i] / maxLife[i];
+            alpha = Math.max(0, Math.min(1, alpha));
+            
+            g2d.setColor(paletteRamps[color[i]][(int) (alpha * (ALPHA_STEPS - 1))]);
+            int s = (int) size[i];
+            g2d.fillOval((int) x[i] - s / 2, (int) y[i] - s / 2, s, s);
+        }
+    }
+    
+    public void createExplosion(int x, int y, Color color, int particleCount) {
+        int colorIndex = colorIndex(color);
+        for (int i = 0; i < particleCount; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double speed = random.nextDouble() * 5 + 2;
+            double vx = Math.cos(angle) * speed;
+            double vy = Math.sin(angle) * speed;
+            
+            add(x, y, vx, vy, colorIndex, 1000 + random.nextInt(500), PARTICLE_SIZE, false);
+        }
+    }
+    
+    public void createPowerUpEffect(int x, int y, Color color) {
+        int colorIndex = colorIndex(color);
+        for (int i = 0; i < 15; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double speed = random.nextDouble() * 3 + 1;
+            double vx = Math.cos(angle) * speed;
+            double vy = Math.sin(angle) * speed - 2;
+            
+            add(x, y, vx, vy, colorIndex, 800 + random.nextInt(400), PARTICLE_SIZE, false);
+        }
+    }
+    
+    public void createEngineSmoke(int x, int y) {
+        if (random.nextDouble() < 0.7) {
+            double vx = (random.nextDouble() - 0.5) * 2;
+            double vy = random.nextDouble() * 2 + 1;
+            
+            add(x, y, vx, vy, colorIndex(SMOKE_COLOR), 500 + random.nextInt(300), SMOKE_SIZE, true);
+        }
+    }
+    
+    public void clear() {
+        count = 0;
+    }
+    
+    private void add(double px, double py, double pvx, double pvy, int colorIndex, int lifeTime,
+                     int particleSize, boolean isSmoke) {
+        if (count == capacity) {
+            dropped++;
+            return;
+        }
+        
+        int i = count++;
+        x[i] = (float) px;
+        y[i] = (float) py;
+        vx[i] = (float) pvx;
+        vy[i] = (float) pvy;
+        size[i] = particleSize;
+        life[i] = 0;
+        maxLife[i] = lifeTime;
+        color[i] = colorIndex;
+        smoke[i] = isSmoke;
+    }
+    
+    private void remove(int i) {
+        int last = --count;
+        if (i == last) return;
+        
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        size[i] = size[last];
+        life[i] = life[last];
+        maxLife[i] = maxLife[last];
+        color[i] = color[last];
+        smoke[i] = smoke[last];
+    }
+    
+    /**
+     * Finds or registers the alpha ramp for a base color. Particle alpha
+     * comes from the remaining lifetime, so only the RGB part is kept.
+     */
+    private int colorIndex(Color base) {
+        int rgb = base.getRGB() & 0x00FFFFFF;
+        for (int i = 0; i < paletteSize; i++) {
+            if (paletteArgb[i] == rgb) return i;
+        }
+        
+        if (paletteSize == MAX_COLORS) {
+            return nearestColorIndex(rgb);
+        }
+        
+        Color[] ramp = new Color[ALPHA_STEPS];
+        for (int step = 0; step < ALPHA_STEPS; step++) {
+            int alpha = step * 255 / (ALPHA_STEPS - 1);
+            ramp[step] = new Color((alpha << 24) | rgb, true);
+        }
+        paletteArgb[paletteSize] = rgb;
+        paletteRamps[paletteSize] = ramp;
+        return paletteSize++;
+    }
+    
+    private int nearestColorIndex(int rgb) {
+        int best = 0;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < paletteSize; i++) {
+            int dr = ((paletteArgb[i] >> 16) & 0xFF) - ((rgb >> 16) & 0xFF);
+            int dg = ((paletteArgb[i] >> 8) & 0xFF) - ((rgb >> 8) & 0xFF);
+            int db = (paletteArgb[i] & 0xFF) - (rgb & 0xFF);
+            int distance = dr * dr + dg * dg + db * db;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = i;
+            }
+        }
+        return best;
+    }
+    
+    // Getters
+    public int getCount() { return count; }
+    public int getCapacity() { return capacity; }
+    public long getDroppedCount() { return dropped; }
+}
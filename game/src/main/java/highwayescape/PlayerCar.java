@@ -1,8 +1,11 @@
+package highwayescape;
+
 import java.awt.*;
 import java.awt.image.BufferedImage;
 
 public class PlayerCar {
     private int x, y, width, height, speed;
+    private int prevX, prevY;
     private BufferedImage sprite;
     private boolean isMovingLeft, isMovingRight, isMovingUp, isMovingDown;
     private int lastMoveDirection = 0;
@@ -17,6 +20,8 @@ public class PlayerCar {
     public PlayerCar(int x, int y, int speed) {
         this.x = x;
         this.y = y;
+        this.prevX = x;
+        this.prevY = y;
         this.speed = speed;
         this.sprite = AssetLoader.loadImage(AssetLoader.PLAYER_CAR);
         this.width = sprite.getWidth();
@@ -29,6 +34,8 @@ public class PlayerCar {
      * @param gameHeight Height of the game panel
      */
     public void update(int gameWidth, int gameHeight) {
+        prevX = x;
+        prevY = y;
         lastMoveDirection = 0;
         
         if (isMovingLeft) {
@@ -52,8 +59,12 @@ public class PlayerCar {
     /**
      * Renders the player car and optional skid marks
      * @param g2d Graphics2D object for rendering
+     * @param alpha Interpolation factor between the previous and current tick
      */
-    public void render(Graphics2D g2d) {
+    public void render(Graphics2D g2d, double alpha) {
+        int x = getRenderX(alpha);
+        int y = getRenderY(alpha);
+        
         // Draw skid marks
         if (lastMoveDirection != 0) {
             g2d.setColor(Color.BLACK);
@@ -85,6 +96,14 @@ public class PlayerCar {
         return new Rectangle(x, y, width, height);
     }
     
+    /**
+     * Allocation-free overlap test against the car's bounds
+     * @return true if the given box overlaps the car
+     */
+    public boolean intersects(int x, int y, int width, int height) {
+        return Bounds.intersects(this.x, this.y, this.width, this.height, x, y, width, height);
+    }
+    
     // Movement setters
     public void setMovingLeft(boolean isMovingLeft) { this.isMovingLeft = isMovingLeft; }
     public void setMovingRight(boolean isMovingRight) { this.isMovingRight = isMovingRight; }
@@ -94,6 +113,8 @@ public class PlayerCar {
     // Getters
     public int getX() { return x; }
     public int getY() { return y; }
+    public int getRenderX(double alpha) { return (int) Math.round(prevX + (x - prevX) * alpha); }
+    public int getRenderY(double alpha) { return (int) Math.round(prevY + (y - prevY) * alpha); }
     public int getWidth() { return width; }
     public int getHeight() { return height; }
     public boolean isMovingForward() { return isMovingUp; }
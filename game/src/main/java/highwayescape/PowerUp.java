@@ -0,0 +1,99 @@
+package highwayescape;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Power-up types and the sprite each is drawn with. The power-ups on the
+ * road are entities in GameWorld's EntityStore, one archetype per type.
+ */
+public class PowerUp {
+    public enum PowerUpType {
+        INVINCIBILITY(Color.YELLOW, 5000, "Invincible"),
+        SCORE_MULTIPLIER(Color.ORANGE, 7000, "2x Score"),
+        EXTRA_LIFE(Color.GREEN, 0, "Extra Life");
+        
+        private final Color color;
+        private final int duration;
+        private final String name;
+        
+        PowerUpType(Color color, int duration, String name) {
+            this.color = color;
+            this.duration = duration;
+            this.name = name;
+        }
+        
+        // values() copies its array on every call
+        static final PowerUpType[] VALUES = values();
+        
+        public Color getColor() { return color; }
+        public int getDuration() { return duration; }
+        public String getName() { return name; }
+    }
+    
+    // Size of the disc, and how far the glow reaches beyond it
+    static final int SIZE = 40;
+    static final int GLOW = 10;
+    private static final Font SYMBOL_FONT = new Font("Arial", Font.BOLD, 16);
+    
+    private PowerUp() {
+    }
+    
+    /**
+     * Glow, disc and symbol of a type, rendered once. The power-up's
+     * position is at (GLOW, GLOW) in the image.
+     */
+    public static BufferedImage getSprite(PowerUpType type) {
+        return Sprites.IMAGES[type.ordinal()];
+    }
+    
+    /**
+     * Renders the sprites on first use; class initialization makes that thread-safe
+     */
+    private static final class Sprites {
+        static final BufferedImage[] IMAGES = new BufferedImage[PowerUpType.VALUES.length];
+        
+        static {
+            for (PowerUpType type : PowerUpType.VALUES) {
+                IMAGES[type.ordinal()] = renderSprite(type);
+            }
+        }
+    }
+    
+    private static BufferedImage renderSprite(PowerUpType type) {
+        BufferedImage sprite = AssetLoader.createCompatibleImage(SIZE + 2 * GLOW, SIZE + 2 * GLOW,
+            Transparency.TRANSLUCENT);
+        Graphics2D g2d = sprite.createGraphics();
+        // The game draws power-ups with antialiasing on
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+        // Glowing effect
+        Color color = type.getColor();
+        g2d.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 50));
+        g2d.fillOval(0, 0, SIZE + 2 * GLOW, SIZE + 2 * GLOW);
+        
+        // Power-up circle
+        g2d.setColor(color);
+        g2d.fillOval(GLOW, GLOW, SIZE, SIZE);
+        
+        // Symbol
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(SYMBOL_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+        String symbol = getSymbol(type);
+        int textX = GLOW + (SIZE - fm.stringWidth(symbol)) / 2;
+        int textY = GLOW + (SIZE + fm.getAscent()) / 2;
+        g2d.drawString(symbol, textX, textY);
+        g2d.dispose();
+        return sprite;
+    }
+    
+    private static String getSymbol(PowerUpType type) {
+        switch (type) {
+            case INVINCIBILITY: return "★";
+            case SCORE_MULTIPLIER: return "2x";
+            case EXTRA_LIFE: return "+1";
+            default: return "?";
+        }
+    }
+}
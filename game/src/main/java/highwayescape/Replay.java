@@ -0,0 +1,235 @@
+package highwayescape;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A recorded game: the world's seed and the input held on every tick.
+ * GameWorld is deterministic given those two, so playing a replay back
+ * reproduces the game exactly, on screen or headless as fast as it runs.
+ *
+ * Input changes rarely between ticks, so it is stored as runs of
+ * (input bits, tick count) with the counts as varints. The final tick
+ * count and score are stored as well, to tell whether a playback matched.
+ */
+public class Replay {
+    public static final String EXTENSION = ".replay";
+    
+    // Binary format: magic, version, seed, then varints for ticks, score and
+    // run count, the runs, and a CRC32 of everything before it
+    private static final int MAGIC = 0x48455250; // "HERP"
+    private static final int VERSION = 1;
+    
+    private final long seed;
+    private final long ticks;
+    private final long finalScore;
+    private final byte[] runInputs;
+    private final long[] runLengths;
+    private final int runCount;
+    
+    /**
+     * Records the input of a world as it ticks
+     */
+    public static class Recorder {
+        private final long seed;
+        private byte[] runInputs = new byte[64];
+        private long[] runLengths = new long[64];
+        private int runCount;
+        private long ticks;
+        
+        /**
+         * Constructor for Recorder
+         * @param seed Seed of the world being recorded
+         */
+        public Recorder(long seed) {
+            this.seed = seed;
+        }
+        
+        /**
+         * Adds one tick with the given input bits
+         */
+        public void record(int input) {
+            ticks++;
+            if (runCount > 0 && runInputs[runCount - 1] == (byte) input) {
+                runLengths[runCount - 1]++;
+                return;
+            }
+            if (runCount == runInputs.length) {
+                runInputs = Arrays.copyOf(runInputs, runCount * 2);
+                runLengths = Arrays.copyOf(runLengths, runCount * 2);
+            }
+            runInputs[runCount] = (byte) input;
+            runLengths[runCount] = 1;
+            runCount++;
+        }
+        
+        /**
+         * @param finalScore Score the world had when recording stopped
+         */
+        public Replay finish(long finalScore) {
+            return new Replay(seed, ticks, finalScore, Arrays.copyOf(runInputs, runCount),
+                Arrays.copyOf(runLengths, runCount), runCount);
+        }
+        
+        public long getTicks() { return ticks; }
+    }
+    
+    /**
+     * Hands out the recorded input one tick at a time
+     */
+    public class Cursor {
+        private int run;
+        private long left = runCount > 0 ? runLengths[0] : 0;
+        
+        /**
+         * @return Input bits for the next tick, none once the recording has run out
+         */
+        public int next() {
+            while (left == 0) {
+                if (run + 1 >= runCount) {
+                    return 0;
+                }
+                left = runLengths[++run];
+            }
+            left--;
+            return runInputs[run];
+        }
+    }
+    
+    private Replay(long seed, long ticks, long finalScore, byte[] runInputs, long[] runLengths, int runCount) {
+        this.seed = seed;
+        this.ticks = ticks;
+        this.finalScore = finalScore;
+        this.runInputs = runInputs;
+        this.runLengths = runLengths;
+        this.runCount = runCount;
+    }
+    
+    public Cursor cursor() {
+        return new Cursor();
+    }
+    
+    /**
+     * Plays the whole recording on a new world, without a display
+     * @return The world after the last recorded tick
+     */
+    public GameWorld play() {
+        GameWorld world = new GameWorld(seed);
+        world.setPlayback(cursor());
+        while (world.getTicks() < ticks && world.tick()) {
+            // Nothing to do between ticks
+        }
+        return world;
+    }
+    
+    /**
+     * Whether a world that played this replay ended where the recording did
+     */
+    public boolean matches(GameWorld world) {
+        return world.getTicks() == ticks && world.getScore() == finalScore;
+    }
+    
+    public static Replay read(File file) throws IOException {
+        return decode(Files.readAllBytes(file.toPath()));
+    }
+    
+    public void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(encode());
+        }
+    }
+    
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + runCount * 3);
+        ByteBuffer header = ByteBuffer.allocate(14);
+        header.putInt(MAGIC).putShort((short) VERSION).putLong(seed);
+        bytes.write(header.array(), 0, header.position());
+        writeVarint(bytes, ticks);
+        writeVarint(bytes, finalScore);
+        writeVarint(bytes, runCount);
+        for (int i = 0; i < runCount; i++) {
+            bytes.write(runInputs[i]);
+            writeVarint(bytes, runLengths[i]);
+        }
+        
+        CRC32 crc = new CRC32();
+        byte[] body = bytes.toByteArray();
+        crc.update(body, 0, body.length);
+        return ByteBuffer.allocate(body.length + 4).put(body).putInt((int) crc.getValue()).array();
+    }
+    
+    public static Replay decode(byte[] data) throws IOException {
+        if (data.length < 18) {
+            throw new IOException("Replay is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, data.length - 4);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a replay");
+        }
+        if (ByteBuffer.wrap(data).getInt(data.length - 4) != (int) crc.getValue()) {
+            throw new IOException("Replay is corrupt");
+        }
+        int version = buffer.getShort() & 0xFFFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        
+        try {
+            long seed = buffer.getLong();
+            long ticks = readVarint(buffer);
+            long finalScore = readVarint(buffer);
+            int runCount = (int) readVarint(buffer);
+            byte[] runInputs = new byte[runCount];
+            long[] runLengths = new long[runCount];
+            for (int i = 0; i < runCount; i++) {
+                runInputs[i] = buffer.get();
+                runLengths[i] = readVarint(buffer);
+            }
+            return new Replay(seed, ticks, finalScore, runInputs, runLengths, runCount);
+        } catch (RuntimeException e) {
+            throw new IOException("Replay is truncated", e);
+        }
+    }
+    
+    /**
+     * Unsigned LEB128: seven bits per byte, high bit set on all but the last
+     */
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint is too long");
+    }
+    
+    // Getters
+    public long getSeed() { return seed; }
+    public long getTicks() { return ticks; }
+    public long getFinalScore() { return finalScore; }
+    public int getRunCount() { return runCount; }
+}
@@ -0,0 +1,69 @@
+package highwayescape;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws the scrolling road. The road image is scaled to the panel size
+ * once, into a compatible image, so each frame is two unscaled blits of
+ * the slices that are actually visible.
+ */
+public class RoadRenderer {
+    private final BufferedImage road;
+    private final int width;
+    private final int height;
+    
+    /**
+     * Constructor for RoadRenderer
+     * @param source Road image at any size, or null to draw nothing
+     * @param width Width of the area to cover
+     * @param height Height of the area to cover, which is also the scroll period
+     */
+    public RoadRenderer(BufferedImage source, int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.road = source == null ? null : prescale(source, width, height);
+    }
+    
+    private static BufferedImage prescale(BufferedImage source, int width, int height) {
+        if (source.getWidth() == width && source.getHeight() == height) {
+            return AssetLoader.toCompatibleImage(source);
+        }
+        
+        BufferedImage scaled = AssetLoader.createCompatibleImage(width, height, Transparency.OPAQUE);
+        Graphics2D g = scaled.createGraphics();
+        // Only paid once, so use the better filter
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+    
+    /**
+     * Draws the road scrolled down by the given amount
+     * @param g2d Graphics2D object for rendering
+     * @param scrollY Scroll position; any value, it wraps around every height pixels
+     */
+    public void draw(Graphics2D g2d, int scrollY) {
+        if (road == null) return;
+        
+        int top = Math.floorMod(scrollY, height);
+        if (top > 0) {
+            // Bottom of the road, wrapped around to the top of the screen
+            g2d.drawImage(road,
+                0, 0, width, top,
+                0, height - top, width, height,
+                null);
+        }
+        g2d.drawImage(road,
+            0, top, width, height,
+            0, 0, width, height - top,
+            null);
+    }
+    
+    public BufferedImage getImage() {
+        return road;
+    }
+}
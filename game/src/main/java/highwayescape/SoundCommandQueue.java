@@ -0,0 +1,139 @@
+package highwayescape;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded lock-free queue of sound commands with many producers and one
+ * consumer. Producers never block: a command that doesn't fit is dropped
+ * and counted. Each slot carries a sequence number that says whether it
+ * is free or filled, so producers only contend on one compare-and-set.
+ *
+ * Commands are plain ints in preallocated arrays, so offering one doesn't
+ * allocate. A sound triggered again before the consumer has started the
+ * previous trigger is coalesced into it.
+ */
+public class SoundCommandQueue {
+    public static final int PLAY_SOUND = 0;
+    public static final int STOP_SOUND = 1;
+    public static final int PLAY_MUSIC = 2;
+    public static final int STOP_MUSIC = 3;
+    public static final int PAUSE_MUSIC = 4;
+    public static final int RESUME_MUSIC = 5;
+    
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final int[] commands;
+    private final int[] keys;
+    private final int[] args;
+    private final long[] enqueueNanos;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+    
+    // One flag per sound key, set while a PLAY_SOUND for it is waiting
+    private final AtomicIntegerArray pendingPlays;
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    
+    /**
+     * Receives the commands taken off the queue
+     */
+    public interface Handler {
+        void handle(int command, int key, int arg, long enqueueNanos);
+    }
+    
+    /**
+     * Constructor for SoundCommandQueue
+     * @param capacity Maximum waiting commands, rounded up to a power of two
+     * @param soundKeys Number of distinct sound keys, for coalescing
+     */
+    public SoundCommandQueue(int capacity, int soundKeys) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        commands = new int[size];
+        keys = new int[size];
+        args = new int[size];
+        enqueueNanos = new long[size];
+        pendingPlays = new AtomicIntegerArray(Math.max(1, soundKeys));
+    }
+    
+    /**
+     * Adds a command; safe from any thread
+     * @return False if it was dropped because the queue is full
+     */
+    public boolean offer(int command, int key, int arg) {
+        if (command == PLAY_SOUND && !pendingPlays.compareAndSet(key, 0, 1)) {
+            coalesced.increment();
+            return true;
+        }
+        
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    commands[index] = command;
+                    keys[index] = key;
+                    args[index] = arg;
+                    enqueueNanos[index] = System.nanoTime();
+                    // Publishes the slot's fields to the consumer. A full volatile write,
+                    // so the consumer's waiting flag is read after it.
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                if (command == PLAY_SOUND) {
+                    pendingPlays.set(key, 0);
+                }
+                dropped.increment();
+                return false;
+            }
+        }
+    }
+    
+    /**
+     * Hands every waiting command to the handler. Only one thread may drain.
+     * @return Number of commands handled
+     */
+    public int drain(Handler handler) {
+        int handled = 0;
+        while (true) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                return handled;
+            }
+            
+            int command = commands[index];
+            int key = keys[index];
+            int arg = args[index];
+            long nanos = enqueueNanos[index];
+            sequences.lazySet(index, head + mask + 1);
+            head++;
+            
+            if (command == PLAY_SOUND) {
+                pendingPlays.set(key, 0);
+            }
+            handler.handle(command, key, arg, nanos);
+            handled++;
+        }
+    }
+    
+    /**
+     * @return Whether nothing is waiting; only meaningful on the draining thread
+     */
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+    
+    // Getters
+    public int getCapacity() { return mask + 1; }
+    public long getCoalesced() { return coalesced.sum(); }
+    public long getDropped() { return dropped.sum(); }
+}
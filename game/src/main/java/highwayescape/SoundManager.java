@@ -0,0 +1,386 @@
+package highwayescape;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+import javax.sound.sampled.*;
+
+public class SoundManager {
+    // Name, path and voice priority of every sound effect, then name and path of every music track
+    private static final String[][] SOUND_FILES = {
+        {"crash", "assets/sounds/crash.wav", "2"},
+        {"powerup", "assets/sounds/powerup.wav", "1"},
+        {"button", "assets/sounds/button.wav", "0"}
+    };
+    private static final String[][] MUSIC_FILES = {
+        {"game", "assets/music/game.wav"}
+    };
+    
+    // Output buffer of the music line, about 93 ms at 44.1 kHz
+    private static final int MUSIC_LINE_FRAMES = 4096;
+    private static final long COMMAND_IDLE_NANOS = 50_000_000L;
+    
+    private static SoundManager instance;
+    private Map<String, AudioMixer.Sample> sounds;
+    private Map<String, String> music;
+    private AudioMixer mixer;
+    private volatile MusicStreamer currentMusic;
+    private volatile boolean soundEnabled = true;
+    private volatile boolean musicEnabled = true;
+    private volatile float soundVolume = 1.0f;
+    private volatile float musicVolume = 0.7f;
+    
+    // Every playback call is queued and run on one thread, so the game tick never waits on the audio driver
+    private final SoundCommandQueue commands = new SoundCommandQueue(64, SOUND_FILES.length);
+    private final SoundCommandQueue.Handler commandHandler = this::execute;
+    private final FrameProfiler.Histogram startLatency = new FrameProfiler.Histogram();
+    private volatile Thread commandThread;
+    private volatile boolean commandThreadWaiting;
+    private boolean audioSystemAvailable = true;
+    
+    private SoundManager() {
+        // Filled in from the asset loader threads
+        sounds = new ConcurrentHashMap<>();
+        music = new ConcurrentHashMap<>();
+        checkAudioSystem();
+    }
+    
+    public static synchronized SoundManager getInstance() {
+        if (instance == null) {
+            instance = new SoundManager();
+        }
+        return instance;
+    }
+    
+    private void checkAudioSystem() {
+        try {
+            // Test if audio system is available
+            AudioSystem.getMixerInfo();
+        } catch (Exception e) {
+            System.out.println("Audio system not available, running in silent mode.");
+            audioSystemAvailable = false;
+        }
+    }
+    
+    /**
+     * Loads every sound effect and music track on the calling thread
+     */
+    public void loadSounds() {
+        if (!audioSystemAvailable) {
+            return;
+        }
+        
+        try {
+            // Load sound effects (WAV format)
+            for (String[] sound : SOUND_FILES) {
+                loadSound(sound[0], sound[1], Integer.parseInt(sound[2]));
+            }
+            
+            // Load background music files (WAV format)
+            for (String[] track : MUSIC_FILES) {
+                loadMusic(track[0], track[1]);
+            }
+            
+            System.out.println("Loaded " + sounds.size() + " sound effects and " + music.size() + " music tracks.");
+            
+        } catch (Exception e) {
+            System.err.println("Error loading sounds: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Opens every sound effect and music track as its own task, so the
+     * files load alongside each other and the images
+     * @return One future per file
+     */
+    public List<CompletableFuture<Void>> loadSoundsAsync(Executor executor) {
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        if (!audioSystemAvailable) {
+            return tasks;
+        }
+        
+        for (String[] sound : SOUND_FILES) {
+            tasks.add(CompletableFuture.runAsync(
+                () -> loadSound(sound[0], sound[1], Integer.parseInt(sound[2])), executor));
+        }
+        for (String[] track : MUSIC_FILES) {
+            tasks.add(CompletableFuture.runAsync(() -> loadMusic(track[0], track[1]), executor));
+        }
+        return tasks;
+    }
+    
+    /**
+     * Decodes a sound effect into the mixer's format
+     */
+    private void loadSound(String name, String path, int priority) {
+        if (sounds.containsKey(name)) return;
+        
+        try {
+            AssetPack pack = AssetLoader.getAssetPack();
+            if (pack != null && pack.hasSound(path)) {
+                sounds.put(name, AudioMixer.Sample.fromPcm(pack.getSoundFormat(path), pack.readSound(path), priority));
+                getMixer();
+                return;
+            }
+            
+            File soundFile = new File(path);
+            if (soundFile.exists()) {
+                sounds.put(name, AudioMixer.Sample.load(soundFile, priority));
+                getMixer();
+                System.out.println("Loaded sound: " + name + " from " + path);
+            } else {
+                System.out.println("Sound file not found: " + path);
+            }
+        } catch (UnsupportedAudioFileException | IOException | IllegalArgumentException e) {
+            System.out.println("Could not load sound: " + path + " - " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Starts the mixer on first use. Without an output line the mix goes
+     * to a null sink, so playback behaves the same with no sound card.
+     */
+    private synchronized AudioMixer getMixer() {
+        if (mixer == null) {
+            mixer = new AudioMixer(openSink(AudioMixer.FORMAT, AudioMixer.BLOCK_FRAMES * 4), AudioMixer.DEFAULT_VOICES);
+            mixer.start();
+        }
+        return mixer;
+    }
+    
+    /**
+     * Opens an output line, or a null sink if there is none for this format
+     */
+    private static AudioMixer.Sink openSink(AudioFormat format, int bufferFrames) {
+        try {
+            return new AudioMixer.LineSink(format, bufferFrames);
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            System.out.println("No audio line for " + format + ", playing into a null sink: " + e.getMessage());
+            return new AudioMixer.NullSink();
+        }
+    }
+    
+    /**
+     * Registers a music track. Tracks are streamed when played, so nothing is decoded here.
+     */
+    private void loadMusic(String name, String path) {
+        if (music.containsKey(name)) return;
+        
+        AssetPack pack = AssetLoader.getAssetPack();
+        if ((pack != null && pack.hasSound(path)) || new File(path).exists()) {
+            music.put(name, path);
+            System.out.println("Found music: " + name + " at " + path);
+        } else {
+            System.out.println("Music file not found: " + path);
+        }
+    }
+    
+    /**
+     * Queues a sound effect. Returns at once; the sound starts on the command thread.
+     */
+    public void playSound(String name) {
+        if (!soundEnabled || !audioSystemAvailable) return;
+        
+        int key = indexOf(SOUND_FILES, name);
+        if (key >= 0) {
+            enqueue(SoundCommandQueue.PLAY_SOUND, key, 0);
+        }
+    }
+    
+    public void playMusic(String name, boolean loop) {
+        if (!musicEnabled || !audioSystemAvailable) return;
+        
+        int key = indexOf(MUSIC_FILES, name);
+        if (key >= 0) {
+            enqueue(SoundCommandQueue.PLAY_MUSIC, key, loop ? 1 : 0);
+        }
+    }
+    
+    /**
+     * Holds the music where it is, for the pause screen
+     */
+    public void pauseMusic() {
+        enqueue(SoundCommandQueue.PAUSE_MUSIC, 0, 0);
+    }
+    
+    /**
+     * Carries on from where pauseMusic() stopped
+     */
+    public void resumeMusic() {
+        enqueue(SoundCommandQueue.RESUME_MUSIC, 0, 0);
+    }
+    
+    public void stopAllMusic() {
+        enqueue(SoundCommandQueue.STOP_MUSIC, 0, 0);
+    }
+    
+    public void stopSound(String name) {
+        int key = indexOf(SOUND_FILES, name);
+        if (key >= 0) {
+            enqueue(SoundCommandQueue.STOP_SOUND, key, 0);
+        }
+    }
+    
+    private static int indexOf(String[][] table, String name) {
+        for (int i = 0; i < table.length; i++) {
+            if (table[i][0].equals(name)) return i;
+        }
+        return -1;
+    }
+    
+    /**
+     * Hands a command to the command thread, starting it on first use
+     */
+    private void enqueue(int command, int key, int arg) {
+        Thread thread = commandThread;
+        if (thread == null) {
+            thread = startCommandThread();
+        }
+        commands.offer(command, key, arg);
+        if (commandThreadWaiting) {
+            LockSupport.unpark(thread);
+        }
+    }
+    
+    private synchronized Thread startCommandThread() {
+        if (commandThread == null) {
+            Thread thread = new Thread(this::runCommands, "sound-commands");
+            thread.setDaemon(true);
+            thread.start();
+            commandThread = thread;
+        }
+        return commandThread;
+    }
+    
+    private void runCommands() {
+        while (true) {
+            if (commands.drain(commandHandler) == 0) {
+                commandThreadWaiting = true;
+                if (commands.isEmpty()) {
+                    // Timed, so a wake-up lost to a race costs at most one period
+                    LockSupport.parkNanos(this, COMMAND_IDLE_NANOS);
+                }
+                commandThreadWaiting = false;
+            }
+        }
+    }
+    
+    /**
+     * Runs one command on the command thread; the only place that touches javax.sound
+     */
+    private void execute(int command, int key, int arg, long enqueueNanos) {
+        try {
+            switch (command) {
+                case SoundCommandQueue.PLAY_SOUND:
+                    AudioMixer.Sample sample = sounds.get(SOUND_FILES[key][0]);
+                    if (sample != null && soundEnabled) {
+                        getMixer().play(sample, soundVolume);
+                        synchronized (startLatency) {
+                            startLatency.record(System.nanoTime() - enqueueNanos);
+                        }
+                    }
+                    break;
+                case SoundCommandQueue.STOP_SOUND:
+                    AudioMixer.Sample playing = sounds.get(SOUND_FILES[key][0]);
+                    if (playing != null) {
+                        getMixer().stop(playing);
+                    }
+                    break;
+                case SoundCommandQueue.PLAY_MUSIC:
+                    startMusic(MUSIC_FILES[key][0], arg != 0);
+                    break;
+                case SoundCommandQueue.STOP_MUSIC:
+                    closeMusic();
+                    break;
+                case SoundCommandQueue.PAUSE_MUSIC:
+                    if (currentMusic != null) currentMusic.pause();
+                    break;
+                case SoundCommandQueue.RESUME_MUSIC:
+                    if (currentMusic != null && musicEnabled) currentMusic.resume();
+                    break;
+                default:
+                    break;
+            }
+        } catch (Exception e) {
+            // Silently ignore audio errors
+        }
+    }
+    
+    private void startMusic(String name, boolean loop) {
+        if (!musicEnabled) return;
+        
+        closeMusic();
+        String path = music.get(name);
+        if (path != null) {
+            try {
+                MusicStreamer streamer = new MusicStreamer(path, MusicStreamer.DEFAULT_RING_BYTES);
+                streamer.setGain(musicVolume);
+                streamer.start(openSink(streamer.getFormat(), MUSIC_LINE_FRAMES), loop);
+                currentMusic = streamer;
+            } catch (UnsupportedAudioFileException | IOException e) {
+                System.out.println("Could not play music: " + path + " - " + e.getMessage());
+            }
+        }
+    }
+    
+    private void closeMusic() {
+        MusicStreamer streamer = currentMusic;
+        currentMusic = null;
+        if (streamer != null) {
+            streamer.close();
+        }
+    }
+    
+    /**
+     * @return Enqueue-to-start latency of sound effects and queue counters
+     */
+    public String getCommandStats() {
+        synchronized (startLatency) {
+            return String.format("%d sounds started, latency p50 %.2f ms, p99 %.2f ms, max %.2f ms; %d coalesced, %d dropped",
+                startLatency.getCount(), startLatency.getPercentile(50) / 1e6, startLatency.getPercentile(99) / 1e6,
+                startLatency.getMax() / 1e6, commands.getCoalesced(), commands.getDropped());
+        }
+    }
+    
+    // Status methods
+    public boolean isAudioAvailable() {
+        return audioSystemAvailable;
+    }
+    
+    public int getLoadedSoundsCount() {
+        return sounds.size();
+    }
+    
+    public int getLoadedMusicCount() {
+        return music.size();
+    }
+    
+    // Getters and setters
+    public void setSoundEnabled(boolean enabled) { 
+        this.soundEnabled = enabled; 
+    }
+    
+    public void setMusicEnabled(boolean enabled) { 
+        this.musicEnabled = enabled; 
+        if (!enabled) stopAllMusic();
+    }
+    
+    public boolean isSoundEnabled() { return soundEnabled; }
+    public boolean isMusicEnabled() { return musicEnabled; }
+    
+    public void setSoundVolume(float volume) { 
+        this.soundVolume = Math.max(0, Math.min(1, volume)); 
+    }
+    
+    public void setMusicVolume(float volume) { 
+        this.musicVolume = Math.max(0, Math.min(1, volume)); 
+        MusicStreamer streamer = currentMusic;
+        if (streamer != null) streamer.setGain(musicVolume);
+    }
+}
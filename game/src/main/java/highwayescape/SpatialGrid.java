@@ -0,0 +1,220 @@
+package highwayescape;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uniform grid over the play field used as a collision broad phase.
+ * Each entry remembers the cells it covers, so moving an entity only
+ * touches the grid when it crosses into a different cell. Positions
+ * outside the grid are clamped to the border cells, which keeps queries
+ * conservative for entities waiting above or leaving below the screen.
+ */
+public class SpatialGrid<T> {
+    public static final int DEFAULT_CELL_SIZE = 100;
+    
+    private final int cellSize;
+    private final int originX, originY;
+    private final int columns, rows;
+    private final List<List<Entry<T>>> cells;
+    private int size;
+    private int queryStamp;
+    
+    /**
+     * An item's membership in the grid
+     */
+    public static final class Entry<T> {
+        private final T item;
+        private int minColumn, minRow, maxColumn, maxRow;
+        // Last bounds, and the range of y that keeps the same rows
+        private int x, width, height, minY, maxY;
+        private int stamp;
+        private boolean inGrid;
+        
+        private Entry(T item) {
+            this.item = item;
+        }
+        
+        public T getItem() {
+            return item;
+        }
+    }
+    
+    /**
+     * Grid covering the game's play field plus the spawn area above it
+     */
+    public SpatialGrid() {
+        this(DEFAULT_CELL_SIZE, 0, -3 * DEFAULT_CELL_SIZE, GameWorld.WIDTH, GameWorld.HEIGHT + 6 * DEFAULT_CELL_SIZE);
+    }
+    
+    /**
+     * Constructor for SpatialGrid
+     * @param cellSize Width and height of a cell
+     * @param originX Left edge of the covered area
+     * @param originY Top edge of the covered area
+     * @param width Width of the covered area
+     * @param height Height of the covered area
+     */
+    public SpatialGrid(int cellSize, int originX, int originY, int width, int height) {
+        this.cellSize = cellSize;
+        this.originX = originX;
+        this.originY = originY;
+        this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        this.cells = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(new ArrayList<>());
+        }
+    }
+    
+    /**
+     * Adds an item with the given bounds
+     * @return Handle to pass to update() and remove()
+     */
+    public Entry<T> insert(T item, int x, int y, int width, int height) {
+        Entry<T> entry = new Entry<>(item);
+        setBounds(entry, x, y, width, height);
+        addToCells(entry);
+        entry.inGrid = true;
+        size++;
+        return entry;
+    }
+    
+    /**
+     * Puts a removed entry back with new bounds, so a pooled item can keep its handle
+     */
+    public void reinsert(Entry<T> entry, int x, int y, int width, int height) {
+        if (entry.inGrid) return;
+        setBounds(entry, x, y, width, height);
+        addToCells(entry);
+        entry.inGrid = true;
+        size++;
+    }
+    
+    /**
+     * Moves an item; cell lists are only touched if its cell range changed
+     */
+    public void update(Entry<T> entry, int x, int y, int width, int height) {
+        if (!entry.inGrid) return;
+        
+        // Fast path for the common case of a vertical move within the same rows
+        if (x == entry.x && width == entry.width && height == entry.height
+                && y >= entry.minY && y <= entry.maxY) {
+            return;
+        }
+        
+        int minColumn = entry.minColumn;
+        int maxColumn = entry.maxColumn;
+        int minRow = entry.minRow;
+        int maxRow = entry.maxRow;
+        setBounds(entry, x, y, width, height);
+        if (minColumn == entry.minColumn && maxColumn == entry.maxColumn
+                && minRow == entry.minRow && maxRow == entry.maxRow) {
+            return;
+        }
+        
+        removeFromCells(entry, minColumn, maxColumn, minRow, maxRow);
+        addToCells(entry);
+    }
+    
+    public void remove(Entry<T> entry) {
+        if (!entry.inGrid) return;
+        removeFromCells(entry, entry.minColumn, entry.maxColumn, entry.minRow, entry.maxRow);
+        entry.inGrid = false;
+        size--;
+    }
+    
+    public void clear() {
+        for (List<Entry<T>> cell : cells) {
+            for (Entry<T> entry : cell) {
+                entry.inGrid = false;
+            }
+            cell.clear();
+        }
+        size = 0;
+    }
+    
+    /**
+     * Collects every item sharing a cell with the given area. Each item is
+     * reported once; candidates still need an exact overlap test.
+     * @param out List the candidates are appended to
+     * @return Number of candidates added
+     */
+    public int query(int x, int y, int width, int height, List<T> out) {
+        int stamp = ++queryStamp;
+        int added = 0;
+        
+        int maxColumn = column(x + width - 1);
+        int maxRow = row(y + height - 1);
+        for (int r = row(y); r <= maxRow; r++) {
+            for (int c = column(x); c <= maxColumn; c++) {
+                List<Entry<T>> cell = cells.get(r * columns + c);
+                for (int i = 0, n = cell.size(); i < n; i++) {
+                    Entry<T> entry = cell.get(i);
+                    if (entry.stamp != stamp) {
+                        entry.stamp = stamp;
+                        out.add(entry.item);
+                        added++;
+                    }
+                }
+            }
+        }
+        return added;
+    }
+    
+    private void setBounds(Entry<T> entry, int x, int y, int width, int height) {
+        entry.minColumn = column(x);
+        entry.maxColumn = column(x + width - 1);
+        entry.minRow = row(y);
+        entry.maxRow = row(y + height - 1);
+        entry.x = x;
+        entry.width = width;
+        entry.height = height;
+        
+        // Top edge has to stay in minRow and bottom edge in maxRow; border rows are open-ended
+        int extent = height - 1;
+        int lowTop = entry.minRow == 0 ? Integer.MIN_VALUE : originY + entry.minRow * cellSize;
+        int highTop = entry.minRow == rows - 1 ? Integer.MAX_VALUE : originY + (entry.minRow + 1) * cellSize - 1;
+        int lowBottom = entry.maxRow == 0 ? Integer.MIN_VALUE : originY + entry.maxRow * cellSize - extent;
+        int highBottom = entry.maxRow == rows - 1 ? Integer.MAX_VALUE : originY + (entry.maxRow + 1) * cellSize - 1 - extent;
+        entry.minY = Math.max(lowTop, lowBottom);
+        entry.maxY = Math.min(highTop, highBottom);
+    }
+    
+    private void addToCells(Entry<T> entry) {
+        for (int r = entry.minRow; r <= entry.maxRow; r++) {
+            for (int c = entry.minColumn; c <= entry.maxColumn; c++) {
+                cells.get(r * columns + c).add(entry);
+            }
+        }
+    }
+    
+    private void removeFromCells(Entry<T> entry, int minColumn, int maxColumn, int minRow, int maxRow) {
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                List<Entry<T>> cell = cells.get(r * columns + c);
+                // Swap-remove; order within a cell doesn't matter
+                int index = cell.indexOf(entry);
+                int last = cell.size() - 1;
+                if (index >= 0) {
+                    cell.set(index, cell.get(last));
+                    cell.remove(last);
+                }
+            }
+        }
+    }
+    
+    private int column(int x) {
+        return Math.max(0, Math.min(columns - 1, Math.floorDiv(x - originX, cellSize)));
+    }
+    
+    private int row(int y) {
+        return Math.max(0, Math.min(rows - 1, Math.floorDiv(y - originY, cellSize)));
+    }
+    
+    // Getters
+    public int size() { return size; }
+    public int getCellSize() { return cellSize; }
+    public int getColumns() { return columns; }
+    public int getRows() { return rows; }
+}
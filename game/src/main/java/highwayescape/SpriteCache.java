@@ -0,0 +1,170 @@
+package highwayescape;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe image cache with a memory budget. Each entry is charged
+ * its decoded size. When the cache goes over budget, the least recently
+ * used entries are evicted first. Pinned entries are never evicted, so
+ * the sprites every frame needs stay resident whatever else gets loaded.
+ *
+ * Lookups are lock-free; only inserts that trigger eviction synchronize.
+ */
+public class SpriteCache {
+    public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long budgetBytes;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong residentBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    private static final class Entry {
+        final BufferedImage image;
+        final long bytes;
+        volatile boolean pinned;
+        volatile long lastUsed;
+        
+        Entry(BufferedImage image, long bytes, boolean pinned) {
+            this.image = image;
+            this.bytes = bytes;
+            this.pinned = pinned;
+        }
+    }
+    
+    /**
+     * Constructor for SpriteCache
+     */
+    public SpriteCache() {
+        this(Long.getLong("highway.spriteCacheBytes", DEFAULT_BUDGET_BYTES));
+    }
+    
+    /**
+     * Constructor for SpriteCache
+     * @param budgetBytes Decoded bytes to stay under; pinned entries count towards it but are never evicted
+     */
+    public SpriteCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+    
+    /**
+     * @return The cached image, or null on a miss
+     */
+    public BufferedImage get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.lastUsed = clock.incrementAndGet();
+        hits.increment();
+        return entry.image;
+    }
+    
+    /**
+     * Adds an image unless the key is already cached
+     * @param pinned Whether the entry is exempt from eviction
+     * @return The image now cached under the key, which is the existing one if another thread got there first
+     */
+    public BufferedImage put(String key, BufferedImage image, boolean pinned) {
+        Entry entry = new Entry(image, sizeOf(image), pinned);
+        entry.lastUsed = clock.incrementAndGet();
+        
+        Entry previous = entries.putIfAbsent(key, entry);
+        if (previous != null) {
+            if (pinned) previous.pinned = true;
+            return previous.image;
+        }
+        
+        if (residentBytes.addAndGet(entry.bytes) > budgetBytes) {
+            evict();
+        }
+        return image;
+    }
+    
+    /**
+     * Exempts a cached entry from eviction
+     */
+    public void pin(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) entry.pinned = true;
+    }
+    
+    /**
+     * Makes a cached entry evictable again
+     */
+    public void unpin(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) entry.pinned = false;
+        if (residentBytes.get() > budgetBytes) {
+            evict();
+        }
+    }
+    
+    public boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+    
+    /**
+     * Drops every entry, pinned ones included. Counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        residentBytes.set(0);
+    }
+    
+    /**
+     * Evicts least recently used, unpinned entries until the cache is
+     * within budget or only pinned entries are left
+     */
+    private synchronized void evict() {
+        while (residentBytes.get() > budgetBytes) {
+            String oldestKey = null;
+            Entry oldest = null;
+            for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                Entry entry = candidate.getValue();
+                if (!entry.pinned && (oldest == null || entry.lastUsed < oldest.lastUsed)) {
+                    oldestKey = candidate.getKey();
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) return;
+            
+            if (entries.remove(oldestKey, oldest)) {
+                residentBytes.addAndGet(-oldest.bytes);
+                evictions.increment();
+            }
+        }
+    }
+    
+    /**
+     * @return Bytes held by the image's pixel data
+     */
+    static long sizeOf(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        long bitsPerElement = DataBuffer.getDataTypeSize(buffer.getDataType());
+        return (long) buffer.getSize() * buffer.getNumBanks() * bitsPerElement / 8;
+    }
+    
+    // Getters
+    public int size() { return entries.size(); }
+    public long getBudgetBytes() { return budgetBytes; }
+    public long getResidentBytes() { return residentBytes.get(); }
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    
+    @Override
+    public String toString() {
+        return String.format("%d sprites, %.1f/%.1f MB resident, %d hits, %d misses, %d evictions",
+            size(), getResidentBytes() / (1024.0 * 1024.0), budgetBytes / (1024.0 * 1024.0),
+            getHits(), getMisses(), getEvictions());
+    }
+}
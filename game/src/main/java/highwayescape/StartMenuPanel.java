@@ -1,3 +1,5 @@
+package highwayescape;
+
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
@@ -20,24 +22,34 @@ public class StartMenuPanel extends JPanel {
     private StartMenuListener listener;
     private Timer animationTimer;
     private HighScoreManager highScoreManager;
+    private HighScoreManager.HighScoreEntry bestScore;
+    private AssetPreloader preloader;
     
     public StartMenuPanel() {
         setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
         setBackground(BACKGROUND_COLOR);
         setFocusable(true);
         
-        carImage = AssetLoader.loadImage(AssetLoader.PLAYER_CAR);
+        // The car sprite is picked up from the cache once preloading is done
+        preloader = AssetPreloader.getInstance();
+        preloader.start();
         carPosition = new Point(120, 80);
         smokeParticles = new ArrayList<>();
         random = new Random();
         titleFont = new Font("Arial", Font.ITALIC, 44);
         buttonFont = new Font("Arial", Font.BOLD, 18);
-        highScoreManager = new HighScoreManager();
+        highScoreManager = HighScoreManager.getInstance();
+        bestScore = highScoreManager.getHighestScore();
+        // Scores come from the game panel, on whatever thread it saved them
+        highScoreManager.addListener(scores -> SwingUtilities.invokeLater(() -> {
+            bestScore = scores.isEmpty() ? null : scores.get(0);
+            repaint();
+        }));
         
         addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
-                if (e.getKeyCode() == KeyEvent.VK_ENTER && listener != null) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER && listener != null && preloader.isDone()) {
                     SoundManager.getInstance().playSound("button");
                     listener.onStartGame();
                 } else if (e.getKeyCode() == KeyEvent.VK_H) {
@@ -48,6 +60,9 @@ public class StartMenuPanel extends JPanel {
         });
         
         animationTimer = new Timer(50, e -> {
+            if (carImage == null && preloader.isDone()) {
+                carImage = AssetLoader.loadImage(AssetLoader.PLAYER_CAR);
+            }
             updateSmoke();
             repaint();
         });
@@ -125,10 +140,18 @@ public class StartMenuPanel extends JPanel {
         int buttonY = 170;
         g2d.fillRoundRect(buttonX, buttonY, buttonWidth, buttonHeight, 20, 20);
         
+        // Fill the button as a progress bar until the assets are in
+        boolean loaded = preloader.isDone();
+        if (!loaded) {
+            g2d.setColor(new Color(80, 170, 80, 200));
+            int progressWidth = (int) (buttonWidth * preloader.getProgress());
+            g2d.fillRoundRect(buttonX, buttonY, progressWidth, buttonHeight, 20, 20);
+        }
+        
         g2d.setColor(Color.WHITE);
         g2d.setFont(buttonFont);
         FontMetrics metrics = g2d.getFontMetrics(buttonFont);
-        String buttonText = "Press Enter";
+        String buttonText = loaded ? "Press Enter" : "Loading " + (int) (preloader.getProgress() * 100) + "%";
         int textX = buttonX + (buttonWidth - metrics.stringWidth(buttonText)) / 2;
         int textY = buttonY + ((buttonHeight - metrics.getHeight()) / 2) + metrics.getAscent();
         g2d.drawString(buttonText, textX, textY);
@@ -144,6 +167,11 @@ public class StartMenuPanel extends JPanel {
         int highScoreTextY = highScoreButtonY + ((buttonHeight - metrics.getHeight()) / 2) + metrics.getAscent();
         g2d.drawString(highScoreText, highScoreTextX, highScoreTextY);
         
+        if (bestScore != null) {
+            String bestText = "Best: " + bestScore.playerName + " - " + bestScore.score;
+            g2d.drawString(bestText, (PANEL_WIDTH - metrics.stringWidth(bestText)) / 2, highScoreButtonY + buttonHeight + 30);
+        }
+        
         // Instructions
         g2d.setFont(new Font("Arial", Font.PLAIN, 14));
         g2d.setColor(new Color(255, 255, 255, 200));
@@ -0,0 +1,115 @@
+package highwayescape;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AssetPackTest {
+    private static final String IMAGE = "assets/a.png";
+    private static final String SOUND = "assets/b.wav";
+    // Position of the first record's data offset: header, name length, name, kind
+    private static final int FIRST_OFFSET = 12 + 2 + IMAGE.length() + 1;
+    
+    @TempDir
+    File directory;
+    
+    private File source;
+    private File pack;
+    private BufferedImage image;
+    private byte[] samples;
+    
+    @BeforeEach
+    void buildPack() throws IOException {
+        source = new File(directory, "source");
+        source.mkdir();
+        
+        image = new BufferedImage(7, 5, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, 0xFF000000 | x * 0x250000 | y * 0x3300);
+            }
+        }
+        ImageIO.write(image, "png", new File(source, "a.png"));
+        
+        samples = new byte[4410];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (byte) (i * 7);
+        }
+        AudioFormat format = new AudioFormat(22050, 16, 1, true, false);
+        AudioInputStream audio = new AudioInputStream(new ByteArrayInputStream(samples), format, samples.length / 2);
+        AudioSystem.write(audio, AudioFileFormat.Type.WAVE, new File(source, "b.wav"));
+        
+        pack = new File(directory, "assets.pack");
+        assertEquals(2, AssetPack.build(source, pack));
+    }
+    
+    @Test
+    void readsWhatWasPacked() throws IOException {
+        AssetPack opened = AssetPack.open(pack);
+        assertEquals(2, opened.size());
+        
+        BufferedImage read = opened.readImage(IMAGE);
+        assertEquals(image.getWidth(), read.getWidth());
+        assertEquals(image.getHeight(), read.getHeight());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals(image.getRGB(x, y), read.getRGB(x, y), "pixel " + x + "," + y);
+            }
+        }
+        assertArrayEquals(samples, opened.readSound(SOUND));
+        assertNull(opened.readImage(SOUND));
+        assertNull(AssetPack.open(new File(directory, "missing.pack")));
+        
+        // Nothing is left beside the pack by the build
+        String[] files = directory.list();
+        Arrays.sort(files);
+        assertArrayEquals(new String[] { "assets.pack", "source" }, files);
+    }
+    
+    @Test
+    void rejectsTruncatedPacks() throws IOException {
+        byte[] whole = Files.readAllBytes(pack.toPath());
+        // Empty, inside the header, inside the index and inside the data
+        for (int length : new int[] { 0, 3, 11, 12, 30, 60, whole.length - 100, whole.length - 1 }) {
+            File truncated = new File(directory, "truncated-" + length + ".pack");
+            Files.write(truncated.toPath(), Arrays.copyOf(whole, length));
+            assertThrows(IOException.class, () -> AssetPack.open(truncated), "pack cut to " + length + " bytes");
+        }
+    }
+    
+    @Test
+    void rejectsEntriesOutsideTheFile() throws IOException {
+        try (RandomAccessFile raw = new RandomAccessFile(pack, "rw")) {
+            raw.seek(FIRST_OFFSET);
+            raw.writeLong(raw.length());
+        }
+        IOException e = assertThrows(IOException.class, () -> AssetPack.open(pack));
+        assertEquals("Asset pack entry " + IMAGE + " is damaged or truncated: " + pack, e.getMessage());
+    }
+    
+    @Test
+    void rejectsImpossibleEntryCount() throws IOException {
+        try (RandomAccessFile raw = new RandomAccessFile(pack, "rw")) {
+            raw.seek(8);
+            raw.writeInt(Integer.MAX_VALUE);
+        }
+        assertThrows(IOException.class, () -> AssetPack.open(pack));
+    }
+}
@@ -0,0 +1,131 @@
+package highwayescape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class EntityStoreTest {
+    // Two colliders with a gap between them, so a box in the gap misses
+    private static final int[] SPLIT = { 0, 0, 30, 20, 0, 40, 30, 20 };
+    
+    @Test
+    void matchesPlainListOfEntities() {
+        EntityStore store = new EntityStore();
+        EntityStore.Archetype split = store.register(new EntityStore.Archetype("split", null, 0, 0,
+            30, 60, SPLIT, 40, 700, false, null));
+        EntityStore.Archetype bobbing = store.register(new EntityStore.Archetype("bobbing", null, 0, 0,
+            40, 40, new int[] { 0, 0, 40, 40 }, 0, 800, true, PowerUp.PowerUpType.EXTRA_LIFE));
+        EntityStore.Archetype[] kinds = { split, bobbing };
+        List<List<int[]>> expected = new ArrayList<>();
+        expected.add(new ArrayList<>());
+        expected.add(new ArrayList<>());
+        
+        Random random = new Random(11);
+        for (int step = 0; step < 3000; step++) {
+            long time = step * 16L;
+            for (int n = random.nextInt(4); n > 0; n--) {
+                int k = random.nextInt(kinds.length);
+                int x = -50 + random.nextInt(600), y = -400 + random.nextInt(1100);
+                int vx = random.nextInt(5) - 2, vy = random.nextInt(7);
+                store.spawn(kinds[k], x, y, vx, vy, time);
+                expected.get(k).add(new int[] { x, y, vx, vy, (int) time });
+            }
+            
+            store.move(time);
+            for (int k = 0; k < kinds.length; k++) {
+                for (int[] e : expected.get(k)) {
+                    e[0] += e[2];
+                    e[1] += e[3];
+                    if (kinds[k] == bobbing) {
+                        e[1] += (int) (StrictMath.sin((time - e[4]) / 1000.0 * 3) * 5);
+                    }
+                }
+            }
+            
+            store.expire();
+            expected.get(0).removeIf(e -> e[1] + 40 > 700);
+            expected.get(1).removeIf(e -> e[1] > 800);
+            
+            int boxX = -50 + random.nextInt(600), boxY = -400 + random.nextInt(1100);
+            int boxWidth = 1 + random.nextInt(120), boxHeight = 1 + random.nextInt(120);
+            List<String> hits = new ArrayList<>();
+            store.collide(boxX, boxY, boxWidth, boxHeight, (kind, index) -> {
+                hits.add(kind.getName() + " " + kind.getX(index) + "," + kind.getY(index));
+                return true;
+            });
+            
+            List<String> expectedHits = new ArrayList<>();
+            for (int k = 0; k < kinds.length; k++) {
+                int[] colliders = kinds[k] == split ? SPLIT : new int[] { 0, 0, 40, 40 };
+                for (int i = expected.get(k).size() - 1; i >= 0; i--) {
+                    int[] e = expected.get(k).get(i);
+                    boolean hit = false;
+                    for (int c = 0; c < colliders.length; c += 4) {
+                        hit |= Bounds.intersects(e[0] + colliders[c], e[1] + colliders[c + 1],
+                            colliders[c + 2], colliders[c + 3], boxX, boxY, boxWidth, boxHeight);
+                    }
+                    if (hit) {
+                        expectedHits.add(kinds[k].getName() + " " + e[0] + "," + e[1]);
+                        expected.get(k).remove(i);
+                    }
+                }
+            }
+            Collections.sort(hits);
+            Collections.sort(expectedHits);
+            assertEquals(expectedHits, hits, "hits of step " + step);
+            
+            for (int k = 0; k < kinds.length; k++) {
+                assertEquals(positions(expected.get(k)), positions(kinds[k]), kinds[k].getName() + " after step " + step);
+            }
+        }
+        assertEquals(expected.get(0).size() + expected.get(1).size(), store.size());
+        assertTrue(split.getHighWater() >= split.getCount());
+    }
+    
+    @Test
+    void listenerCanStopThePass() {
+        EntityStore store = new EntityStore();
+        EntityStore.Archetype box = store.register(new EntityStore.Archetype("box", null, 0, 0,
+            10, 10, new int[] { 0, 0, 10, 10 }, 0, 700, false, null));
+        for (int i = 0; i < 3; i++) {
+            store.spawn(box, 100 + i, 100, 0, 0, 0);
+        }
+        
+        assertFalse(store.collide(box, 100, 100, 10, 10, (kind, index) -> false));
+        assertEquals(2, box.getCount());
+        assertTrue(store.collide(box, 100, 100, 10, 10, null));
+        assertEquals(0, box.getCount());
+        
+        // Slots freed by the hits are reused, and found by the next pass
+        store.spawn(box, 300, 300, 0, 0, 0);
+        assertEquals(1, store.collide(300, 300, 1, 1, null));
+        store.clear();
+        store.spawn(box, 300, 300, 0, 0, 0);
+        assertEquals(1, store.collide(300, 300, 1, 1, null));
+        assertEquals(3, box.getHighWater());
+    }
+    
+    private static List<String> positions(List<int[]> entities) {
+        List<String> positions = new ArrayList<>();
+        for (int[] e : entities) {
+            positions.add(e[0] + "," + e[1]);
+        }
+        Collections.sort(positions);
+        return positions;
+    }
+    
+    private static List<String> positions(EntityStore.Archetype kind) {
+        List<String> positions = new ArrayList<>();
+        for (int i = 0; i < kind.getCount(); i++) {
+            positions.add(kind.getX(i) + "," + kind.getY(i));
+        }
+        Collections.sort(positions);
+        return positions;
+    }
+}
@@ -0,0 +1,50 @@
+package highwayescape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class GameWorldTest {
+    private static final int PASSES = 10000;
+    
+    @BeforeAll
+    static void prepareAssets() {
+        Main.prepareAssets();
+    }
+    
+    @Test
+    void updateObstaclesAllocatesNothing() {
+        GameWorld world = new GameWorld(42);
+        
+        // Parked obstacles (speed 0), so the population stays constant between passes
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            EntityStore.Archetype kind = i % 3 == 0 ? world.getTruckKind() : world.getCarKind();
+            world.addObstacle(kind, random.nextInt(GameWorld.WIDTH - 80), -200 + random.nextInt(500), 0);
+        }
+        
+        // Cars in the lanes left and right of the player, close but not touching
+        PlayerCar player = world.getPlayer();
+        world.addObstacle(world.getCarKind(), player.getX() - 150, player.getY(), 0);
+        world.addObstacle(world.getCarKind(), player.getX() + player.getWidth() + 90, player.getY(), 0);
+        
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        
+        // First passes may load classes and size the grid
+        world.updateObstacles(0);
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < PASSES; i++) {
+            world.updateObstacles(0);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        
+        assertEquals(0, allocated, "bytes allocated by " + PASSES + " collision passes");
+        assertEquals(GameWorld.START_LIVES, world.getLives(), "no obstacle touches the player");
+        assertEquals(1002, world.getObstacleCount());
+    }
+}
@@ -0,0 +1,187 @@
+package highwayescape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HighScoreManagerTest {
+    // highscores.dat as the game wrote it before the classes moved into a package
+    private static final String LEGACY_FIXTURE = "legacy-highscores.dat";
+    private static final String[] LEGACY_TABLE = {
+        "Anonymous - 2498 (Level 5) - 2025-06-17 15:52",
+        "Anonymous - 1687 (Level 7) - 2025-06-17 15:47",
+        "Ghani - 834 (Level 2) - 2025-06-17 14:32",
+        "Anonymous - 334 (Level 1) - 2025-06-17 15:11",
+        "Ghani - 102 (Level 1) - 2025-06-17 15:57",
+        "Anonymous - 77 (Level 1) - 2025-06-17 16:16"
+    };
+    
+    @TempDir
+    File directory;
+    
+    private File file;
+    
+    @BeforeEach
+    void copyFixture() throws IOException {
+        file = new File(directory, "highscores.dat");
+        try (InputStream in = getClass().getResourceAsStream(LEGACY_FIXTURE)) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    @Test
+    void readsLegacyFileAndRewritesItInBinaryFormat() throws IOException {
+        List<HighScoreManager.HighScoreEntry> legacy = HighScoreManager.read(file);
+        assertTable(LEGACY_TABLE, legacy);
+        assertEquals(5, legacy.get(0).difficulty);
+        assertEquals(7, legacy.get(1).difficulty);
+        
+        HighScoreManager.writeAtomically(legacy, file);
+        byte[] written = Files.readAllBytes(file.toPath());
+        assertEquals(0x48455343, ByteBuffer.wrap(written).getInt(), "binary format magic");
+        assertEquals(Arrays.asList(file.getName()), Arrays.asList(directory.list()), "temporary file left behind");
+        
+        List<HighScoreManager.HighScoreEntry> reread = HighScoreManager.read(file);
+        assertTable(LEGACY_TABLE, reread);
+        for (int i = 0; i < legacy.size(); i++) {
+            assertEquals(legacy.get(i).difficulty, reread.get(i).difficulty);
+        }
+        assertEquals(Arrays.toString(written), Arrays.toString(HighScoreManager.encode(reread)));
+    }
+    
+    @Test
+    void managerMigratesLegacyFileOnNextSave() throws IOException {
+        HighScoreManager manager = new HighScoreManager(file.getPath());
+        assertTable(LEGACY_TABLE, manager.getHighScores());
+        
+        manager.addHighScore("  Tester ", 900, 3, "Level 3");
+        manager.flush();
+        assertEquals(0x48455343, ByteBuffer.wrap(Files.readAllBytes(file.toPath())).getInt());
+        
+        List<HighScoreManager.HighScoreEntry> reloaded = new HighScoreManager(file.getPath()).getHighScores();
+        assertEquals(LEGACY_TABLE.length + 1, reloaded.size());
+        assertEquals(LEGACY_TABLE[1], reloaded.get(1).toString());
+        assertEquals("Tester", reloaded.get(2).playerName);
+        assertEquals(900, reloaded.get(2).score);
+        assertEquals(LEGACY_TABLE[2], reloaded.get(3).toString());
+    }
+    
+    @Test
+    void listenersSeeTablesInTheOrderTheyWereMade() throws Exception {
+        HighScoreManager manager = new HighScoreManager(file.getPath());
+        List<List<HighScoreManager.HighScoreEntry>> seen = Collections.synchronizedList(new ArrayList<>());
+        manager.addListener(seen::add);
+        
+        // A table's best only ever rises, so an older table announced late shows up as a drop
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            int first = t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    manager.addHighScore("Writer", 10000 + first + writers.length * i, 1, "Level 1");
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        manager.flush();
+        
+        assertEquals(writers.length * 500, seen.size());
+        int best = 0;
+        for (List<HighScoreManager.HighScoreEntry> table : seen) {
+            int top = table.get(0).score;
+            assertTrue(top >= best, "table with best " + top + " announced after one with best " + best);
+            best = top;
+        }
+        assertSame(manager.getHighScores(), seen.get(seen.size() - 1));
+    }
+    
+    @Test
+    void damagedLeaderboardLeavesTopScoresWorking() throws IOException {
+        File leaderboard = new File(directory, "leaderboard.dat");
+        Files.write(leaderboard.toPath(), new byte[100]);
+        
+        HighScoreManager manager = new HighScoreManager(file.getPath(), leaderboard.getPath());
+        manager.addHighScore("Tester", 900, 3, "Level 3");
+        // The save is queued behind the leaderboard's open on the writer thread
+        manager.flush();
+        assertNull(manager.getLeaderboard());
+        assertEquals(-1, manager.getAllTimeRank(900));
+        assertEquals(LEGACY_TABLE.length + 1, new HighScoreManager(file.getPath()).getHighScores().size());
+        
+        // Not opened again for the next manager either
+        HighScoreManager next = new HighScoreManager(file.getPath(), leaderboard.getPath());
+        next.addHighScore("Tester", 950, 3, "Level 3");
+        next.flush();
+        assertNull(next.getLeaderboard());
+    }
+    
+    @Test
+    void decodeRejectsDamagedFiles() throws IOException {
+        byte[] encoded = HighScoreManager.encode(HighScoreManager.read(file));
+        
+        byte[] flipped = encoded.clone();
+        flipped[20] ^= 0x01;
+        assertRejected("High score file is corrupt", flipped);
+        assertRejected("High score file is corrupt", Arrays.copyOf(encoded, encoded.length - 1));
+        assertRejected("High score file is truncated", Arrays.copyOf(encoded, 11));
+        
+        // A valid checksum over a version this build doesn't know
+        byte[] newer = Arrays.copyOf(encoded, encoded.length - 4);
+        newer[5] = 2;
+        assertRejected("Unsupported high score file version 2", withCrc(newer));
+    }
+    
+    @Test
+    void readRejectsUnknownFormat() throws IOException {
+        Files.write(file.toPath(), "not a score file".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> HighScoreManager.read(file));
+        
+        // Serialized, but not a score table
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+            out.writeObject("not a list");
+        }
+        IOException e = assertThrows(IOException.class, () -> HighScoreManager.read(file));
+        assertEquals("Unrecognised high score file", e.getMessage());
+    }
+    
+    private static void assertTable(String[] expected, List<HighScoreManager.HighScoreEntry> actual) {
+        assertEquals(expected.length, actual.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual.get(i).toString());
+        }
+    }
+    
+    private static void assertRejected(String message, byte[] data) {
+        IOException e = assertThrows(IOException.class, () -> HighScoreManager.decode(data));
+        assertEquals(message, e.getMessage());
+    }
+    
+    private static byte[] withCrc(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        return ByteBuffer.allocate(body.length + 4).put(body).putInt((int) crc.getValue()).array();
+    }
+}
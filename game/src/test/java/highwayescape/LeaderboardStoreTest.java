@@ -0,0 +1,279 @@
+package highwayescape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks the store against a plain list of every run, sorted on each query
+ */
+class LeaderboardStoreTest {
+    private static final int DIFFICULTIES = 5;
+    private static final String[] NAMES = { "Alice", "Bob", "  Carol  ", "Dave", "Eve", "Mallory", "", null,
+        "A name far too long to fit in the fifty-five bytes of a player record" };
+    
+    @TempDir
+    File directory;
+    
+    private File file;
+    private Random random;
+    private final List<Run> oracle = new ArrayList<>();
+    
+    /**
+     * A recorded run; seq is the insertion order, which breaks score ties
+     */
+    private static final class Run {
+        final String name;
+        final int score;
+        final int difficulty;
+        final long time;
+        final int seq;
+        
+        Run(String name, int score, int difficulty, long time, int seq) {
+            this.name = name;
+            this.score = score;
+            this.difficulty = difficulty;
+            this.time = time;
+            this.seq = seq;
+        }
+    }
+    
+    private static final Comparator<Run> BEST_FIRST = new Comparator<Run>() {
+        @Override
+        public int compare(Run a, Run b) {
+            return a.score != b.score ? Integer.compare(b.score, a.score) : Integer.compare(a.seq, b.seq);
+        }
+    };
+    
+    @BeforeEach
+    void setUp() {
+        file = new File(directory, "leaderboard.dat");
+        random = new Random(20240611);
+    }
+    
+    @Test
+    void randomInsertsMatchSortedList() throws IOException {
+        try (LeaderboardStore store = LeaderboardStore.open(file)) {
+            verify(store);
+            // Past the initial capacity, so the file is grown and remapped
+            for (int i = 1; i <= 3000; i++) {
+                long rank = addRandomRun(store);
+                assertEquals(rankOf(oracle.get(oracle.size() - 1).score, -1), rank, "rank returned by add");
+                if (i == 1 || i == 100 || i == 1024 || i == 1025 || i == 3000) {
+                    verify(store);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void reopenKeepsEveryRun() throws IOException {
+        try (LeaderboardStore store = LeaderboardStore.open(file)) {
+            for (int i = 0; i < 1500; i++) {
+                addRandomRun(store);
+            }
+        }
+        try (LeaderboardStore store = LeaderboardStore.open(file)) {
+            verify(store);
+            for (int i = 0; i < 500; i++) {
+                addRandomRun(store);
+            }
+            verify(store);
+        }
+        try (LeaderboardStore store = LeaderboardStore.open(file)) {
+            verify(store);
+        }
+    }
+    
+    @Test
+    void uncleanShutdownIsRebuilt() throws IOException {
+        // Flushed but never closed, as when the game is killed
+        LeaderboardStore abandoned = LeaderboardStore.open(file);
+        for (int i = 0; i < 1200; i++) {
+            addRandomRun(abandoned);
+        }
+        abandoned.flush();
+        
+        try (LeaderboardStore store = LeaderboardStore.open(file)) {
+            verify(store);
+            for (int i = 0; i < 300; i++) {
+                addRandomRun(store);
+            }
+            verify(store);
+        } finally {
+            abandoned.close();
+        }
+    }
+    
+    @Test
+    void rebuildRestoresWipedIndex() throws IOException {
+        try (LeaderboardStore store = LeaderboardStore.open(file)) {
+            for (int i = 0; i < 2000; i++) {
+                addRandomRun(store);
+            }
+        }
+        
+        // Header layout: clean flag at 12, tree roots from 24 (global, then one per difficulty)
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(12);
+            raw.writeInt(0);
+            raw.seek(24);
+            for (int tree = 0; tree <= LeaderboardStore.MAX_DIFFICULTIES; tree++) {
+                raw.writeInt(-1);
+            }
+        }
+        
+        try (LeaderboardStore store = LeaderboardStore.open(file)) {
+            verify(store);
+        }
+    }
+    
+    @Test
+    void truncatedFilesAreRejected() throws IOException {
+        try (LeaderboardStore store = LeaderboardStore.open(file)) {
+            for (int i = 0; i < 100; i++) {
+                addRandomRun(store);
+            }
+        }
+        File players = new File(file.getPath() + ".players");
+        
+        // Run count past the end of the file
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(8);
+            raw.writeInt(Integer.MAX_VALUE);
+        }
+        assertTruncated();
+        
+        // An empty players file beside the runs
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(8);
+            raw.writeInt(oracle.size());
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(players, "rw")) {
+            raw.setLength(0);
+        }
+        assertTruncated();
+        
+        // Runs cut inside the header
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(100);
+        }
+        assertTruncated();
+    }
+    
+    private void assertTruncated() {
+        IOException e = assertThrows(IOException.class, () -> LeaderboardStore.open(file));
+        assertEquals("Leaderboard is truncated", e.getMessage());
+    }
+    
+    private long addRandomRun(LeaderboardStore store) throws IOException {
+        String name = NAMES[random.nextInt(NAMES.length)];
+        // A narrow score range, so there are plenty of ties
+        int score = random.nextInt(400);
+        int difficulty = random.nextInt(DIFFICULTIES);
+        long time = 1_700_000_000_000L + oracle.size();
+        oracle.add(new Run(normalise(name), score, difficulty, time, oracle.size()));
+        return store.add(name, score, difficulty, time);
+    }
+    
+    private static String normalise(String name) {
+        String trimmed = name == null || name.trim().isEmpty() ? "Anonymous" : name.trim();
+        // All test names are ASCII, one byte per character
+        return trimmed.substring(0, Math.min(trimmed.length(), LeaderboardStore.MAX_NAME_BYTES));
+    }
+    
+    private void verify(LeaderboardStore store) {
+        assertEquals(oracle.size(), store.size(), "size");
+        for (int score = -1; score <= 401; score += 7) {
+            assertEquals(rankOf(score, -1), store.getRank(score), "rank of " + score);
+            for (int difficulty = 0; difficulty < DIFFICULTIES; difficulty++) {
+                assertEquals(rankOf(score, difficulty), store.getRank(score, difficulty),
+                    "rank of " + score + " at difficulty " + difficulty);
+            }
+        }
+        
+        for (int k : new int[] { 0, 1, 10, 250, oracle.size() + 5 }) {
+            assertTop(sorted(-1), store.getTop(k), k);
+            for (int difficulty = 0; difficulty < DIFFICULTIES; difficulty++) {
+                assertEquals(count(difficulty), store.size(difficulty), "size at difficulty " + difficulty);
+                assertTop(sorted(difficulty), store.getTop(k, difficulty), k);
+            }
+        }
+        
+        List<Run> all = sorted(-1);
+        for (String raw : NAMES) {
+            String name = normalise(raw);
+            Run best = null;
+            for (Run run : all) {
+                if (run.name.equals(name)) {
+                    best = run;
+                    break;
+                }
+            }
+            LeaderboardStore.Entry entry = store.getPlayerBest(raw);
+            if (best == null) {
+                assertNull(entry, "best of " + name);
+            } else {
+                assertRun(best, entry);
+            }
+        }
+        assertNull(store.getPlayerBest("Nobody"));
+    }
+    
+    private long rankOf(int score, int difficulty) {
+        long ahead = 0;
+        for (Run run : oracle) {
+            if (run.score > score && (difficulty < 0 || run.difficulty == difficulty)) {
+                ahead++;
+            }
+        }
+        return ahead + 1;
+    }
+    
+    private int count(int difficulty) {
+        int count = 0;
+        for (Run run : oracle) {
+            if (run.difficulty == difficulty) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private List<Run> sorted(int difficulty) {
+        List<Run> runs = new ArrayList<>();
+        for (Run run : oracle) {
+            if (difficulty < 0 || run.difficulty == difficulty) {
+                runs.add(run);
+            }
+        }
+        Collections.sort(runs, BEST_FIRST);
+        return runs;
+    }
+    
+    private static void assertTop(List<Run> expected, List<LeaderboardStore.Entry> actual, int k) {
+        assertEquals(Math.min(k, expected.size()), actual.size(), "top " + k + " size");
+        for (int i = 0; i < actual.size(); i++) {
+            assertRun(expected.get(i), actual.get(i));
+        }
+    }
+    
+    private static void assertRun(Run expected, LeaderboardStore.Entry actual) {
+        assertEquals(expected.name, actual.getPlayerName());
+        assertEquals(expected.score, actual.getScore());
+        assertEquals(expected.difficulty, actual.getDifficulty());
+        assertEquals(expected.time, actual.getTimeMillis());
+    }
+}
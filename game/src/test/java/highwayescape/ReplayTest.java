@@ -0,0 +1,182 @@
+package highwayescape;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReplayTest {
+    // Stops a game the driver never loses
+    private static final int MAX_TICKS = 60000;
+    // Games recorded by earlier builds; between them they crash into cars and
+    // trucks, crash while invincible and collect every type of power-up
+    private static final String[] RECORDED = {
+        "seed-8.replay", "seed-15.replay", "seed-23.replay", "seed-39.replay", "seed-103.replay"
+    };
+    
+    @TempDir
+    File directory;
+    
+    @BeforeAll
+    static void prepareAssets() {
+        Main.prepareAssets();
+    }
+    
+    @Test
+    void cursorReturnsRecordedInputs() {
+        Random random = new Random(5);
+        int[] inputs = new int[20000];
+        for (int i = 0; i < inputs.length; ) {
+            int input = random.nextInt(16);
+            int length = 1 + random.nextInt(random.nextBoolean() ? 3 : 400);
+            for (int j = 0; j < length && i < inputs.length; j++) {
+                inputs[i++] = input;
+            }
+        }
+        
+        Replay.Recorder recorder = new Replay.Recorder(99);
+        for (int input : inputs) {
+            recorder.record(input);
+        }
+        assertEquals(inputs.length, recorder.getTicks());
+        Replay replay = recorder.finish(1234);
+        
+        Replay.Cursor cursor = replay.cursor();
+        for (int i = 0; i < inputs.length; i++) {
+            assertEquals(inputs[i], cursor.next(), "input of tick " + i);
+        }
+        // No input once the recording has run out
+        assertEquals(0, cursor.next());
+        assertEquals(0, cursor.next());
+    }
+    
+    @Test
+    void emptyRecordingHasNoInput() throws IOException {
+        Replay replay = Replay.decode(new Replay.Recorder(1).finish(0).encode());
+        assertEquals(0, replay.getTicks());
+        assertEquals(0, replay.getRunCount());
+        assertEquals(0, replay.cursor().next());
+    }
+    
+    @Test
+    void encodeDecodeRoundTrip() throws IOException {
+        // Run lengths either side of each varint byte boundary
+        long[] lengths = { 1, 127, 128, 16383, 16384, 2097152, 3 };
+        Replay.Recorder recorder = new Replay.Recorder(Long.MIN_VALUE + 7);
+        int input = 0;
+        for (long length : lengths) {
+            input = (input + 5) % 16;
+            for (long i = 0; i < length; i++) {
+                recorder.record(input);
+            }
+        }
+        Replay replay = recorder.finish(1L << 40);
+        
+        byte[] encoded = replay.encode();
+        Replay decoded = Replay.decode(encoded);
+        assertEquals(replay.getSeed(), decoded.getSeed());
+        assertEquals(replay.getTicks(), decoded.getTicks());
+        assertEquals(replay.getFinalScore(), decoded.getFinalScore());
+        assertEquals(lengths.length, decoded.getRunCount());
+        assertArrayEquals(encoded, decoded.encode());
+        
+        Replay.Cursor expected = replay.cursor(), actual = decoded.cursor();
+        for (long tick = 0; tick <= replay.getTicks(); tick++) {
+            assertEquals(expected.next(), actual.next());
+        }
+    }
+    
+    @Test
+    void rejectsDamagedData() throws IOException {
+        Replay.Recorder recorder = new Replay.Recorder(3);
+        for (int i = 0; i < 1000; i++) {
+            recorder.record(i / 100 % 16);
+        }
+        byte[] encoded = recorder.finish(77).encode();
+        
+        byte[] flipped = encoded.clone();
+        flipped[20] ^= 0x10;
+        assertRejected("Replay is corrupt", flipped);
+        
+        assertRejected("Replay is corrupt", Arrays.copyOf(encoded, encoded.length - 1));
+        assertRejected("Replay is truncated", Arrays.copyOf(encoded, 10));
+        
+        byte[] wrongMagic = encoded.clone();
+        wrongMagic[0] = 'X';
+        assertRejected("Not a replay", wrongMagic);
+        
+        // Valid checksums over bad contents
+        byte[] newerVersion = Arrays.copyOf(encoded, encoded.length - 4);
+        newerVersion[5] = 2;
+        assertRejected("Unsupported replay version 2", withCrc(newerVersion));
+        assertRejected("Replay is truncated", withCrc(Arrays.copyOf(encoded, encoded.length - 8)));
+        
+        byte[] endlessVarint = Arrays.copyOf(encoded, encoded.length - 4);
+        Arrays.fill(endlessVarint, 14, endlessVarint.length, (byte) 0xFF);
+        assertRejected("Replay is truncated", withCrc(endlessVarint));
+    }
+    
+    @Test
+    void playbackMatchesRecordedGame() throws IOException {
+        for (long seed = 1; seed <= 5; seed++) {
+            GameWorld world = new GameWorld(seed);
+            Replay.Recorder recorder = new Replay.Recorder(seed);
+            world.setRecorder(recorder);
+            DifficultySweep.Driver driver = new DifficultySweep.DodgeDriver();
+            do {
+                world.setInput(driver.input(world));
+            } while (world.tick() && world.getTicks() < MAX_TICKS);
+            Replay replay = Replay.decode(recorder.finish(world.getScore()).encode());
+            
+            GameWorld played = replay.play();
+            assertTrue(replay.matches(played), "replay of seed " + seed + " diverged");
+            assertEquals(world.getTicks(), played.getTicks());
+            assertEquals(world.getScore(), played.getScore());
+            assertEquals(world.getLives(), played.getLives());
+            assertEquals(world.getDifficulty(), played.getDifficulty());
+            assertEquals(world.getPlayer().getX(), played.getPlayer().getX());
+            
+            assertFalse(replay.matches(new GameWorld(seed)));
+        }
+    }
+    
+    @Test
+    void recordedGamesStillPlayTheSame() throws IOException {
+        for (String name : RECORDED) {
+            File file = new File(directory, name);
+            try (InputStream in = getClass().getResourceAsStream("replays/" + name)) {
+                Files.copy(in, file.toPath());
+            }
+            Replay replay = Replay.read(file);
+            
+            GameWorld played = replay.play();
+            assertTrue(replay.matches(played), name + " diverged: " + played.getTicks() + " ticks, score "
+                + played.getScore() + "; recorded " + replay.getTicks() + " ticks, score " + replay.getFinalScore());
+            assertTrue(played.isGameOver(), name + " ended in a crash");
+        }
+    }
+    
+    private static void assertRejected(String message, byte[] data) {
+        IOException e = assertThrows(IOException.class, () -> Replay.decode(data));
+        assertEquals(message, e.getMessage());
+    }
+    
+    private static byte[] withCrc(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        return ByteBuffer.allocate(body.length + 4).put(body).putInt((int) crc.getValue()).array();
+    }
+}